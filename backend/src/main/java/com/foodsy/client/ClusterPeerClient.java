@@ -0,0 +1,140 @@
+package com.foodsy.client;
+
+import com.foodsy.dto.ForwardedVote;
+import com.foodsy.dto.VoteReceipt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Calls between the backend nodes of a cluster: liveness pings, session work forwarded
+ * to the node that owns the session, and broadcasts relayed to every other node.
+ * Every call carries the shared cluster secret.
+ */
+@Component
+public class ClusterPeerClient {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+
+    // Not copied when proxying a request; the HTTP client sets its own
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "host", "connection", "content-length", "transfer-encoding", "keep-alive", "upgrade");
+
+    private final RestClient restClient;
+    private final String secret;
+
+    public ClusterPeerClient(@Value("${cluster.secret:}") String secret,
+                             @Value("${cluster.request-timeout-ms:5000}") long requestTimeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(Math.min(requestTimeoutMillis, 1000)));
+        requestFactory.setReadTimeout(Duration.ofMillis(requestTimeoutMillis));
+        this.secret = secret;
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(SECRET_HEADER, secret)
+                .build();
+    }
+
+    public boolean hasSecret() {
+        return !secret.isBlank();
+    }
+
+    /**
+     * Whether a request presenting this secret comes from a cluster node
+     */
+    public boolean isTrusted(String presentedSecret) {
+        return hasSecret() && presentedSecret != null
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), presentedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether a call failed because the node refused the connection, so it cannot have
+     * received the request
+     */
+    public static boolean isConnectionRefused(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean ping(String node) {
+        try {
+            return restClient.get().uri(node + "/cluster/ping").retrieve().toBodilessEntity()
+                    .getStatusCode().is2xxSuccessful();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public VoteReceipt forwardVote(String node, Long sessionId, ForwardedVote vote) {
+        return restClient.post()
+                .uri(node + "/cluster/sessions/{id}/votes", sessionId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(vote)
+                .retrieve()
+                .body(VoteReceipt.class);
+    }
+
+    public void forwardCommand(String node, Long sessionId, String command) {
+        restClient.post()
+                .uri(node + "/cluster/sessions/{id}/commands/{command}", sessionId, command)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    public void relayBroadcast(String node, String destination, MediaType contentType, byte[] payload) {
+        restClient.post()
+                .uri(node + "/cluster/broadcast")
+                .header("X-Destination", destination)
+                .contentType(contentType)
+                .body(payload)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    /**
+     * Replay an HTTP request on another node and return its response as is, 4xx and
+     * 5xx included
+     */
+    public ResponseEntity<byte[]> proxy(String node, HttpMethod method, String pathAndQuery,
+                                        HttpHeaders headers, byte[] body) {
+        return restClient.method(method)
+                .uri(URI.create(node + pathAndQuery))
+                .headers(h -> {
+                    headers.forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                            h.addAll(name, values);
+                        }
+                    });
+                    h.set(FORWARDED_HEADER, "true");
+                })
+                .body(body)
+                .exchange((request, response) -> {
+                    HttpHeaders responseHeaders = new HttpHeaders();
+                    response.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                            responseHeaders.addAll(name, values);
+                        }
+                    });
+                    HttpStatusCode status = response.getStatusCode();
+                    return new ResponseEntity<>(response.getBody().readAllBytes(), responseHeaders, status);
+                });
+    }
+}
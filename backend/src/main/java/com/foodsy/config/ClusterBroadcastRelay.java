@@ -0,0 +1,115 @@
+package com.foodsy.config;
+
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.service.SessionOwnership;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies every /topic broadcast made on this node to the other live nodes, whose
+ * brokers deliver it to the clients connected there. A session's events are produced
+ * on its owner, but its participants may hold STOMP connections to any node.
+ *
+ * Relayed messages carry a header so the receiving node does not relay them again.
+ * Each peer has its own sender thread and bounded queue, so a slow or unreachable
+ * peer neither delays the others nor holds up the broadcaster: once its queue is
+ * full, further broadcasts to it are dropped, and whatever is still queued for it is
+ * discarded when it leaves the ring. Messages to one peer go out in broadcast order.
+ */
+public class ClusterBroadcastRelay implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBroadcastRelay.class);
+
+    public static final String RELAYED_HEADER = "clusterRelayed";
+
+    private final SessionOwnership ownership;
+    private final ClusterPeerClient peerClient;
+    private final int queueCapacity;
+    private final Map<String, PeerLane> lanes = new ConcurrentHashMap<>();
+
+    public ClusterBroadcastRelay(SessionOwnership ownership, ClusterPeerClient peerClient, int queueCapacity) {
+        this.ownership = ownership;
+        this.peerClient = peerClient;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || destination == null || !destination.startsWith("/topic/")
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        MimeType mimeType = accessor.getContentType();
+        MediaType contentType = mimeType != null ? new MediaType(mimeType.getType(), mimeType.getSubtype(), mimeType.getParameters())
+                : MediaType.APPLICATION_JSON;
+        for (String peer : ownership.livePeers()) {
+            lanes.computeIfAbsent(peer, PeerLane::new).sender.execute(() -> {
+                try {
+                    peerClient.relayBroadcast(peer, destination, contentType, payload);
+                } catch (Exception e) {
+                    logger.debug("Could not relay {} to {}: {}", destination, peer, e.getMessage());
+                }
+            });
+        }
+        return message;
+    }
+
+    @EventListener
+    public void ringChanged(SessionOwnership.RingChanged change) {
+        lanes.entrySet().removeIf(lane -> {
+            if (change.ring().nodes().contains(lane.getKey())) {
+                return false;
+            }
+            int discarded = lane.getValue().sender.shutdownNow().size();
+            logger.info("Peer {} left the ring; discarded {} queued broadcasts", lane.getKey(), discarded);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.sender.shutdown());
+    }
+
+    /**
+     * Sender thread and bounded queue of one peer; broadcasts that do not fit are dropped
+     */
+    private final class PeerLane {
+        private final ThreadPoolExecutor sender;
+        private final AtomicLong dropped = new AtomicLong();
+
+        PeerLane(String peer) {
+            this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    Thread.ofPlatform().name("cluster-broadcast-relay-" + lanes.size()).factory(),
+                    (task, executor) -> {
+                        if (dropped.incrementAndGet() % 1000 == 1) {
+                            logger.warn("Relay queue to {} is full, dropping broadcasts ({} dropped so far)",
+                                    peer, dropped.get());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.foodsy.config;
+
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.repository.SessionRepository;
+import com.foodsy.service.SessionOwnership;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wiring for running several backend nodes; only active with cluster.enabled.
+ * Session ownership itself lives in {@link SessionOwnership}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public FilterRegistrationBean<SessionOwnershipFilter> sessionOwnershipFilter(SessionOwnership ownership,
+                                                                                 ClusterPeerClient peerClient,
+                                                                                 SessionRepository sessionRepository) {
+        FilterRegistrationBean<SessionOwnershipFilter> registration =
+                new FilterRegistrationBean<>(new SessionOwnershipFilter(ownership, peerClient, sessionRepository));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1); // ahead of Spring Security
+        return registration;
+    }
+
+    @Bean
+    public ClusterBroadcastRelay clusterBroadcastRelay(SessionOwnership ownership, ClusterPeerClient peerClient,
+                                                       @Value("${cluster.relay-queue-capacity:1000}") int queueCapacity) {
+        return new ClusterBroadcastRelay(ownership, peerClient, queueCapacity);
+    }
+}
@@ -0,0 +1,255 @@
+package com.foodsy.config;
+
+import com.foodsy.domain.Cuisine;
+import com.foodsy.domain.Session;
+import com.foodsy.service.AnalyticsPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Applies PostgreSQL-specific schema objects that Hibernate's ddl-auto cannot express
+ * (partial indexes, constraint changes, table partitioning). Runs once all singletons - including the
+ * EntityManagerFactory and its schema update - are ready, and before any scheduled
+ * job starts. Every statement is idempotent. Other databases (H2 in tests) only get a
+ * portable equivalent of the live join code uniqueness.
+ */
+@Component
+public class DatabaseSchemaInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSchemaInitializer.class);
+
+    // Tables whose entities take ids from a pooled sequence named <table>_seq
+    private static final List<String> SEQUENCE_TABLES = List.of(
+        "analytics_user_sketch", "homepage_analytics", "restaurant_cache", "session", "session_participant",
+        "session_restaurant", "session_restaurant_vote", "session_vote_history", "users",
+        "user_taste_preferences", "user_vote_quota");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnalyticsPartitionService partitionService;
+
+    public DatabaseSchemaInitializer(JdbcTemplate jdbcTemplate, AnalyticsPartitionService partitionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionService = partitionService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isPostgres()) {
+            applyPortableJoinCodeUniqueness();
+            return;
+        }
+
+        for (String statement : statements()) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                logger.warn("Schema statement failed: {} - {}", summarize(statement), e.getMessage());
+            }
+        }
+        partitionService.createUpcomingPartitions(); // before the analytics writer starts
+        logger.info("PostgreSQL schema initialization complete");
+    }
+
+    private List<String> statements() {
+        return List.of(
+            // Join codes are recycled after a session ends or expires: replace the
+            // table-wide unique constraint with one that only covers live sessions
+            """
+            DO $$
+            DECLARE c record;
+            BEGIN
+                FOR c IN SELECT con.conname FROM pg_constraint con
+                         JOIN pg_class rel ON rel.oid = con.conrelid
+                         JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attnum = con.conkey[1]
+                         WHERE rel.relname = 'session' AND con.contype = 'u'
+                           AND array_length(con.conkey, 1) = 1 AND att.attname = 'join_code'
+                LOOP
+                    EXECUTE format('ALTER TABLE session DROP CONSTRAINT %I', c.conname);
+                END LOOP;
+            END $$
+            """,
+            "CREATE UNIQUE INDEX IF NOT EXISTS uq_session_live_join_code ON session (join_code) " +
+                "WHERE status NOT IN ('ended', 'ENDED', 'expired')",
+            // Set-based session expiry only ever scans live sessions
+            "CREATE INDEX IF NOT EXISTS idx_session_live_last_activity ON session (last_activity_at) " +
+                "WHERE status NOT IN ('ended', 'ENDED', 'expired')",
+            "CREATE INDEX IF NOT EXISTS idx_session_live_created_at ON session (created_at) " +
+                "WHERE status NOT IN ('ended', 'ENDED', 'expired')",
+            // homepage_analytics is range-partitioned by day (see AnalyticsPartitionService).
+            // One-time conversion: the existing table becomes the legacy partition holding
+            // everything before today
+            """
+            DO $$
+            DECLARE
+                cutoff timestamptz := date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+                r record;
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_class WHERE relname = 'homepage_analytics' AND relkind = 'r') THEN
+                    RETURN;
+                END IF;
+                ALTER TABLE homepage_analytics RENAME TO homepage_analytics_legacy;
+                FOR r IN SELECT con.conname FROM pg_constraint con
+                         JOIN pg_class rel ON rel.oid = con.conrelid
+                         WHERE rel.relname = 'homepage_analytics_legacy' AND con.contype = 'p'
+                LOOP
+                    EXECUTE format('ALTER TABLE homepage_analytics_legacy DROP CONSTRAINT %I', r.conname);
+                END LOOP;
+                FOR r IN SELECT indexname FROM pg_indexes WHERE tablename = 'homepage_analytics_legacy'
+                LOOP
+                    EXECUTE format('ALTER INDEX %I RENAME TO %I', r.indexname, r.indexname || '_legacy');
+                END LOOP;
+                ALTER TABLE homepage_analytics_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+                ALTER TABLE homepage_analytics_legacy ALTER COLUMN id SET NOT NULL;
+                UPDATE homepage_analytics_legacy SET created_at = 'epoch' WHERE created_at IS NULL;
+                ALTER TABLE homepage_analytics_legacy ALTER COLUMN created_at SET NOT NULL;
+                EXECUTE format('ALTER TABLE homepage_analytics_legacy ADD CONSTRAINT homepage_analytics_legacy_range ' ||
+                               'CHECK (created_at < %L)', cutoff);
+
+                CREATE TABLE homepage_analytics (
+                    LIKE homepage_analytics_legacy INCLUDING DEFAULTS,
+                    PRIMARY KEY (id, created_at)
+                ) PARTITION BY RANGE (created_at);
+                -- The CHECK constraint lets the attach skip its validation scan
+                EXECUTE format('ALTER TABLE homepage_analytics ATTACH PARTITION homepage_analytics_legacy ' ||
+                               'FOR VALUES FROM (MINVALUE) TO (%L)', cutoff);
+            END $$
+            """,
+            // Catch-all for rows outside every daily partition (a clock far ahead, or
+            // maintenance that fell behind) so such inserts land instead of failing
+            """
+            DO $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'homepage_analytics' AND relkind = 'p') THEN
+                    CREATE TABLE IF NOT EXISTS homepage_analytics_default PARTITION OF homepage_analytics DEFAULT;
+                END IF;
+            END $$
+            """,
+            // Ids moved from identity columns to pooled sequences (<table>_seq, created by
+            // Hibernate). Drop the identities, default the id to the sequence for rows
+            // inserted over plain JDBC, and move each sequence past ids already in use
+            """
+            DO $$
+            DECLARE
+                t text;
+                max_id bigint;
+                last_id bigint;
+            BEGIN
+                FOREACH t IN ARRAY ARRAY[%s] LOOP
+                    CONTINUE WHEN to_regclass(t) IS NULL OR to_regclass(t || '_seq') IS NULL;
+                    EXECUTE format('ALTER TABLE %%I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+                    EXECUTE format('ALTER TABLE %%I ALTER COLUMN id SET DEFAULT nextval(%%L)', t, t || '_seq');
+                    EXECUTE format('SELECT MAX(id) FROM %%I', t) INTO max_id;
+                    SELECT last_value INTO last_id FROM pg_sequences WHERE sequencename = t || '_seq';
+                    IF max_id > COALESCE(last_id, 0) THEN
+                        PERFORM setval(t || '_seq', max_id);
+                    END IF;
+                END LOOP;
+            END $$
+            """.formatted(SEQUENCE_TABLES.stream().map(t -> "'" + t + "'").collect(Collectors.joining(", "))),
+            // Partitioned indexes under the entity's index names; the legacy partition's
+            // matching indexes are attached rather than rebuilt
+            "CREATE INDEX IF NOT EXISTS idx_user_id ON homepage_analytics (user_id)",
+            "CREATE INDEX IF NOT EXISTS idx_event_type ON homepage_analytics (event_type)",
+            "CREATE INDEX IF NOT EXISTS idx_section ON homepage_analytics (section)",
+            "CREATE INDEX IF NOT EXISTS idx_created_at ON homepage_analytics (created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_place_id ON homepage_analytics (restaurant_place_id)",
+            // Backfill the normalized category used by the personalized cuisine lookup
+            "UPDATE restaurant_cache SET category_normalized = lower(trim(category)) " +
+                "WHERE category_normalized IS NULL AND category IS NOT NULL",
+            // Taste profile cuisines moved from the user_preferred_cuisines join table to a
+            // Cuisine bitmask. Fold the join table into the mask, then rename it out of the
+            // way in the same transaction so the fold never runs again: a later restart
+            // must not bring back cuisines a user has since cleared
+            """
+            DO $$
+            BEGIN
+                IF to_regclass('user_preferred_cuisines') IS NOT NULL THEN
+                    UPDATE user_taste_preferences p SET cuisine_mask = m.mask
+                    FROM (SELECT preference_id, bit_or(%s) AS mask
+                          FROM user_preferred_cuisines GROUP BY preference_id) m
+                    WHERE p.id = m.preference_id AND p.cuisine_mask = 0;
+                    IF to_regclass('user_preferred_cuisines_legacy') IS NULL THEN
+                        ALTER TABLE user_preferred_cuisines RENAME TO user_preferred_cuisines_legacy;
+                    ELSE
+                        DROP TABLE user_preferred_cuisines;
+                    END IF;
+                END IF;
+            END $$
+            """.formatted(cuisineBitCase("cuisine")),
+            // One-time backfill of the analytics rollups from raw events recorded before
+            // they existed; each statement is a no-op once its rollup table has rows
+            """
+            INSERT INTO analytics_hourly_rollup (bucket_start, event_type, section, place_id, event_count)
+            SELECT date_trunc('hour', created_at, 'UTC'), event_type, COALESCE(section, ''),
+                   COALESCE(restaurant_place_id, ''), COUNT(*)
+            FROM homepage_analytics
+            WHERE created_at IS NOT NULL AND NOT EXISTS (SELECT 1 FROM analytics_hourly_rollup)
+            GROUP BY 1, 2, 3, 4
+            """,
+            """
+            INSERT INTO analytics_daily_rollup (bucket_date, event_type, section, place_id, event_count)
+            SELECT (created_at AT TIME ZONE 'UTC')::date, event_type, COALESCE(section, ''),
+                   COALESCE(restaurant_place_id, ''), COUNT(*)
+            FROM homepage_analytics
+            WHERE created_at IS NOT NULL AND NOT EXISTS (SELECT 1 FROM analytics_daily_rollup)
+            GROUP BY 1, 2, 3, 4
+            """,
+            """
+            INSERT INTO analytics_actor_daily (bucket_date, actor_key, section, user_id, session_id, event_count)
+            SELECT (created_at AT TIME ZONE 'UTC')::date,
+                   CASE WHEN user_id IS NOT NULL THEN 'u:' || user_id ELSE 's:' || session_id END,
+                   COALESCE(section, ''), MAX(user_id),
+                   CASE WHEN MAX(user_id) IS NULL THEN MAX(session_id) END, COUNT(*)
+            FROM homepage_analytics
+            WHERE created_at IS NOT NULL AND (user_id IS NOT NULL OR session_id IS NOT NULL)
+              AND NOT EXISTS (SELECT 1 FROM analytics_actor_daily)
+            GROUP BY 1, 2, 3
+            """
+        );
+    }
+
+    /**
+     * Databases without partial indexes get the same rule through a generated column
+     * holding the join code of live sessions only; unique indexes ignore its NULLs
+     */
+    private void applyPortableJoinCodeUniqueness() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE session ADD COLUMN IF NOT EXISTS live_join_code VARCHAR(6) " +
+                "GENERATED ALWAYS AS (CASE WHEN status IN (" + Session.RELEASED_STATUSES_SQL + ") THEN NULL ELSE join_code END)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_session_live_join_code ON session (live_join_code)");
+        } catch (Exception e) {
+            logger.warn("Could not enforce unique live join codes: {}", e.getMessage());
+        }
+    }
+
+    /** CASE expression mapping a cuisine display name column to its Cuisine bit */
+    private static String cuisineBitCase(String column) {
+        return Stream.of(Cuisine.values())
+            .map(c -> "WHEN '" + c.getDisplayName() + "' THEN " + c.bit())
+            .collect(Collectors.joining(" ", "CASE " + column + " ", " ELSE 0 END"));
+    }
+
+    private boolean isPostgres() {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            logger.warn("Could not determine database product: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static String summarize(String statement) {
+        String flat = statement.strip().replaceAll("\\s+", " ");
+        return flat.length() > 80 ? flat.substring(0, 77) + "..." : flat;
+    }
+}
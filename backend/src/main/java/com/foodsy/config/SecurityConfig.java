@@ -55,6 +55,10 @@ public class SecurityConfig {
                     // Allow public access to admin endpoints for population scripts
                     .requestMatchers(HttpMethod.POST, "/homepage/refresh/**", "/homepage/trending/update/**").permitAll()
                     .requestMatchers(HttpMethod.GET, "/homepage/health", "/homepage/trending/stats/**").permitAll()
+                    // WebSocket handshakes; STOMP connections authenticate at CONNECT
+                    .requestMatchers("/ws/**", "/ws-sockjs/**").permitAll()
+                    // Node-to-node calls; ClusterController checks the shared cluster secret
+                    .requestMatchers("/cluster/**").permitAll()
                     .anyRequest().authenticated())
             .formLogin(AbstractHttpConfigurer::disable)
             .httpBasic(AbstractHttpConfigurer::disable)
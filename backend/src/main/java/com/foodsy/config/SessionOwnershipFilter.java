@@ -0,0 +1,154 @@
+package com.foodsy.config;
+
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.repository.SessionRepository;
+import com.foodsy.service.SessionOwnership;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends requests about a session to the node that owns it and relays the owner's
+ * response back. Runs ahead of Spring Security, so authentication happens once, on
+ * the owner. Requests arriving already forwarded are always handled locally, which
+ * keeps nodes that briefly disagree about membership from bouncing a request; so are
+ * requests whose owner refused the connection or has left the ring. Any other failure
+ * to forward answers 503, since the owner may have handled the request already.
+ */
+public class SessionOwnershipFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionOwnershipFilter.class);
+
+    private static final Pattern SESSION_PATH = Pattern.compile("^/sessions/(\\d{1,18})(/.*)?$");
+    private static final Pattern JOIN_PATH = Pattern.compile("^/sessions/sessions/([^/]+)/join$");
+
+    private final SessionOwnership ownership;
+    private final ClusterPeerClient peerClient;
+    private final SessionRepository sessionRepository;
+
+    public SessionOwnershipFilter(SessionOwnership ownership,
+                                  ClusterPeerClient peerClient,
+                                  SessionRepository sessionRepository) {
+        this.ownership = ownership;
+        this.peerClient = peerClient;
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || request.getHeader(ClusterPeerClient.FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Optional<Long> sessionId = sessionIdOf(request.getRequestURI().substring(request.getContextPath().length()));
+        if (sessionId.isEmpty() || ownership.isLocal(sessionId.get())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String owner = ownership.ownerOf(sessionId.get());
+        byte[] body = request.getInputStream().readAllBytes();
+        ResponseEntity<byte[]> forwarded;
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : Collections.list(request.getHeaderNames())) {
+                headers.addAll(name, Collections.list(request.getHeaders(name)));
+            }
+            String query = request.getQueryString();
+            forwarded = peerClient.proxy(owner, HttpMethod.valueOf(request.getMethod()),
+                    request.getRequestURI() + (query != null ? "?" + query : ""), headers, body);
+        } catch (Exception e) {
+            if (!ownership.canRunInsteadOf(owner, e)) {
+                logger.warn("Could not forward session {} request to {}: {}", sessionId.get(), owner, e.getMessage());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Session owner unavailable");
+                return;
+            }
+            logger.warn("Could not forward session {} request to {}, handling it locally: {}",
+                    sessionId.get(), owner, e.getMessage());
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+            return;
+        }
+
+        response.setStatus(forwarded.getStatusCode().value());
+        forwarded.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (forwarded.getBody() != null) {
+            response.getOutputStream().write(forwarded.getBody());
+        }
+    }
+
+    private Optional<Long> sessionIdOf(String path) {
+        Matcher join = JOIN_PATH.matcher(path);
+        if (join.matches()) {
+            return sessionRepository.findIdByJoinCode(join.group(1));
+        }
+        Matcher session = SESSION_PATH.matcher(path);
+        return session.matches() ? Optional.of(Long.parseLong(session.group(1))) : Optional.empty();
+    }
+
+    /**
+     * The original request with its body, which was read for forwarding, readable again
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+
+                // The whole body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
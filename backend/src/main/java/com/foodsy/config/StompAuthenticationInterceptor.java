@@ -0,0 +1,62 @@
+package com.foodsy.config;
+
+import com.foodsy.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Collections;
+
+/**
+ * Authenticates a STOMP connection once, from the access token in the CONNECT frame's
+ * Authorization header. The user becomes the principal of every later frame on the
+ * connection, so votes sent over it need no per-message token check.
+ *
+ * A connection whose handshake was already authenticated keeps that user; any other
+ * connection without a valid token is refused with an ERROR frame.
+ */
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthenticationInterceptor.class);
+
+    private final JwtService jwtService;
+
+    public StompAuthenticationInterceptor(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtService.validateToken(header.substring(7));
+                if ("access".equals(claims.get("type", String.class))) {
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                            claims.getSubject(), null, Collections.emptyList()));
+                    return message;
+                }
+            } catch (Exception e) {
+                logger.debug("STOMP connection token rejected: {}", e.getMessage());
+            }
+        }
+        if (accessor.getUser() == null) {
+            throw new BadCredentialsException("Authentication required");
+        }
+        return message;
+    }
+}
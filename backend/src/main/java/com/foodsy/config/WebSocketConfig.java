@@ -1,6 +1,9 @@
 package com.foodsy.config;
 
+import com.foodsy.service.JwtService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,10 +13,27 @@ import org.springframework.lang.NonNull;
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final JwtService jwtService;
+    private final ObjectProvider<ClusterBroadcastRelay> broadcastRelay;
+
+    public WebSocketConfig(JwtService jwtService, ObjectProvider<ClusterBroadcastRelay> broadcastRelay) {
+        this.jwtService = jwtService;
+        this.broadcastRelay = broadcastRelay;
+    }
+
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // Enables a simple in-memory broker
+        config.enableSimpleBroker("/topic", "/queue"); // Enables a simple in-memory broker
         config.setApplicationDestinationPrefixes("/app");
+        // With several nodes, broadcasts also reach clients connected to the others
+        broadcastRelay.ifAvailable(relay -> config.configureBrokerChannel().interceptors(relay));
+    }
+
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        // Authenticate each connection once, at CONNECT
+        registration.interceptors(new StompAuthenticationInterceptor(jwtService));
     }
 
     @Override
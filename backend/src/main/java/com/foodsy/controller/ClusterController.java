@@ -0,0 +1,95 @@
+package com.foodsy.controller;
+
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.config.ClusterBroadcastRelay;
+import com.foodsy.dto.ForwardedVote;
+import com.foodsy.dto.VoteReceipt;
+import com.foodsy.service.SessionVoteQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+/**
+ * Endpoints the backend nodes call on each other: liveness, session work forwarded to
+ * its owner, and relayed broadcasts. Only registered with cluster.enabled, and every
+ * call must present the shared cluster secret.
+ */
+@RestController
+@RequestMapping("/cluster")
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private final ClusterPeerClient peerClient;
+    private final SessionEventsController sessionEvents;
+    private final SessionVoteQueue voteQueue;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final String self;
+
+    public ClusterController(ClusterPeerClient peerClient,
+                             SessionEventsController sessionEvents,
+                             SessionVoteQueue voteQueue,
+                             SimpMessagingTemplate messagingTemplate,
+                             @Value("${cluster.self-url:}") String self) {
+        this.peerClient = peerClient;
+        this.sessionEvents = sessionEvents;
+        this.voteQueue = voteQueue;
+        this.messagingTemplate = messagingTemplate;
+        this.self = self;
+    }
+
+    @GetMapping("/ping")
+    public Map<String, String> ping(@RequestHeader(value = ClusterPeerClient.SECRET_HEADER, required = false) String secret) {
+        requireTrusted(secret);
+        return Map.of("node", self);
+    }
+
+    // Queued behind the session's other votes on this node, like a vote received here.
+    // Always cast here, never forwarded again, even if this node no longer owns the session
+    @PostMapping("/sessions/{id}/votes")
+    public VoteReceipt vote(@PathVariable Long id, @RequestBody ForwardedVote forwarded,
+                            @RequestHeader(value = ClusterPeerClient.SECRET_HEADER, required = false) String secret) {
+        requireTrusted(secret);
+        return voteQueue.await(id, () -> sessionEvents.castVote(id, forwarded.userId(), forwarded.vote()));
+    }
+
+    @PostMapping("/sessions/{id}/commands/{command}")
+    public ResponseEntity<Void> command(@PathVariable Long id, @PathVariable String command,
+                                        @RequestHeader(value = ClusterPeerClient.SECRET_HEADER, required = false) String secret) {
+        requireTrusted(secret);
+        sessionEvents.runCommand(id, command);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/broadcast")
+    public ResponseEntity<Void> broadcast(@RequestHeader("X-Destination") String destination,
+                                          @RequestHeader(value = "Content-Type", required = false) String contentType,
+                                          @RequestBody byte[] payload,
+                                          @RequestHeader(value = ClusterPeerClient.SECRET_HEADER, required = false) String secret) {
+        requireTrusted(secret);
+        if (!destination.startsWith("/topic/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only /topic broadcasts are relayed");
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_JSON);
+        headers.setHeader(ClusterBroadcastRelay.RELAYED_HEADER, true);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        return ResponseEntity.noContent().build();
+    }
+
+    private void requireTrusted(String secret) {
+        if (!peerClient.isTrusted(secret)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a cluster node");
+        }
+    }
+}
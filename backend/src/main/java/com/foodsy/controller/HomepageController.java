@@ -18,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,6 +44,19 @@ public class HomepageController {
     @Autowired
     private UserService userService;
 
+    private static final int MAX_CACHED_USER_IDS = 10_000;
+    private static final long USER_ID_TTL_MILLIS = 5 * 60 * 1000;
+
+    // Analytics calls skip the user lookup after the first hit. Bounded LRU, and entries
+    // expire so a deleted or renamed user is looked up again
+    private final Map<String, CachedUserId> userIdsByUsername = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUserId> eldest) {
+                return size() > MAX_CACHED_USER_IDS;
+            }
+        });
+
     /**
      * Get aggregated homepage data
      * GET /api/homepage
@@ -437,10 +452,17 @@ public class HomepageController {
             return Long.parseLong(username);
         } catch (NumberFormatException e) {
             // Username is not a number, look up user by username
+            long now = System.currentTimeMillis();
+            CachedUserId cached = userIdsByUsername.get(username);
+            if (cached != null && now - cached.cachedAt() < USER_ID_TTL_MILLIS) {
+                return cached.id();
+            }
             Optional<User> user = userService.findByUsername(username);
             if (user.isPresent()) {
+                userIdsByUsername.put(username, new CachedUserId(user.get().getId(), now));
                 return user.get().getId();
             } else {
+                userIdsByUsername.remove(username);
                 logger.error("User not found for authentication username: {}", username);
                 throw new IllegalArgumentException("User not found: " + username);
             }
@@ -459,4 +481,6 @@ public class HomepageController {
             .performance(0, false, "error")
             .build();
     }
+
+    private record CachedUserId(Long id, long cachedAt) {}
 } 
\ No newline at end of file
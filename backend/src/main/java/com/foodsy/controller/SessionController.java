@@ -7,13 +7,21 @@ import com.foodsy.repository.SessionParticipantRepository;
 import com.foodsy.repository.SessionRepository;
 import com.foodsy.repository.SessionRestaurantRepository;
 import com.foodsy.repository.SessionRestaurantVoteRepository;
+import com.foodsy.service.SessionMembership;
+import com.foodsy.service.SessionResultsService;
 import com.foodsy.service.SessionService;
+import com.foodsy.service.SessionVoteQueue;
 import com.foodsy.dto.SessionRequest;
 import com.foodsy.service.VoteService;
+import com.foodsy.service.VotingStatusService;
 import com.foodsy.dto.JoinSessionResponse;
+import com.foodsy.dto.SessionResultsDto;
+import com.foodsy.dto.VotingStatusDto;
 
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,10 +29,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 import java.security.Principal;
 
@@ -39,6 +45,10 @@ public class SessionController {
     private final SessionParticipantRepository sessionParticipantRepository;
     private final SessionRepository sessionRepository;
     private final VoteService voteService;
+    private final SessionResultsService sessionResultsService;
+    private final VotingStatusService votingStatusService;
+    private final SessionMembership membership;
+    private final SessionVoteQueue voteQueue;
 
     // Add DTO definition at the top or in a separate file
     record SessionRestaurantDto(
@@ -77,13 +87,21 @@ public class SessionController {
                              SessionRepository sessionRepository,
                              SessionRestaurantRepository sessionRestaurantRepository,
                              SessionRestaurantVoteRepository voteRepo,
-                             VoteService voteService) {
+                             VoteService voteService,
+                             SessionResultsService sessionResultsService,
+                             VotingStatusService votingStatusService,
+                             SessionMembership membership,
+                             SessionVoteQueue voteQueue) {
         this.sessionService = sessionService;
         this.repo = repo;
         this.restaurantRepo = restaurantRepo;
         this.sessionParticipantRepository = sessionParticipantRepository;
         this.sessionRepository = sessionRepository;
         this.voteService = voteService;
+        this.sessionResultsService = sessionResultsService;
+        this.votingStatusService = votingStatusService;
+        this.membership = membership;
+        this.voteQueue = voteQueue;
 
     }
 
@@ -192,6 +210,17 @@ public class SessionController {
         )).toList();
     }
 
+    // GET session standings; final results are cached and revalidated with If-None-Match
+    @GetMapping("/{id}/results")
+    public ResponseEntity<SessionResultsDto> getResults(@PathVariable Long id) {
+        SessionResultsService.SessionResults results = sessionResultsService.getResults(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session not found"));
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .eTag(results.etag())
+            .body(results.body());
+    }
+
     // Add a new participant to a session
     @PostMapping("/{id}/participants")
     public ResponseEntity<ParticipantDto> addParticipant(@PathVariable Long id, Principal principal) {
@@ -203,19 +232,14 @@ public class SessionController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session not found"));
 
         String normalizedUserId = principal.getName().trim().toLowerCase();
-        if (sessionService.getParticipants(id).stream().anyMatch(p -> p.getUserId().equals(normalizedUserId))) {
+        if (!membership.join(session, normalizedUserId)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Participant already exists");
         }
-
-        SessionParticipant participant = new SessionParticipant();
-        participant.setSession(session);
-        participant.setUserId(normalizedUserId);
-        participant.setJoinedAt(Instant.now());
-        sessionParticipantRepository.save(participant);
+        votingStatusService.publish(id);
 
         return ResponseEntity
-                .created(URI.create("/api/sessions/" + id + "/participants/" + participant.getUserId()))
-                .body(new ParticipantDto(participant.getUserId()));
+                .created(URI.create("/api/sessions/" + id + "/participants/" + normalizedUserId))
+                .body(new ParticipantDto(normalizedUserId));
     }
     public void saveParticipant(SessionParticipant participant) {
         sessionParticipantRepository.save(participant);
@@ -233,19 +257,14 @@ public class SessionController {
         String normalizedUserName = principal.getName().trim().toLowerCase();
         Session session = repo.findByJoinCode(code)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invalid join code"));
-        Optional<SessionParticipant> existing = sessionParticipantRepository.findBySessionIdAndUserId(session.getId(), normalizedUserName);
-        if (existing.isPresent()) {
+        if (!membership.join(session, normalizedUserName)) {
             return ResponseEntity.ok(
-                    new JoinSessionResponse(existing.get().getUserId(), session.getId()));
+                    new JoinSessionResponse(normalizedUserName, session.getId()));
         }
-        SessionParticipant participant = new SessionParticipant();
-        participant.setSession(session);
-        participant.setUserId(normalizedUserName);
-        participant.setJoinedAt(Instant.now());
-        sessionParticipantRepository.save(participant);
+        votingStatusService.publish(session.getId());
         
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new JoinSessionResponse(participant.getUserId(), session.getId()));
+                .body(new JoinSessionResponse(normalizedUserName, session.getId()));
         
     }
     @PostMapping("/{id}/restaurants/{providerId}/vote")
@@ -274,26 +293,7 @@ public class SessionController {
         String normalizedUserId = principal.getName().trim().toLowerCase();
         
         // Auto-join user as participant if not already joined
-        boolean isParticipant = sessionParticipantRepository
-                .findBySessionIdAndUserId(id, normalizedUserId)
-                .isPresent();
-        if (!isParticipant) {
-            // Automatically add authenticated user as participant
-            SessionParticipant participant = new SessionParticipant();
-            participant.setSession(session);
-            participant.setUserId(normalizedUserId);
-            participant.setJoinedAt(java.time.Instant.now());
-            sessionParticipantRepository.save(participant);
-        }
-
-        // Ensure restaurant exists in the current round
-        boolean existsInRound = restaurantRepo
-                .findBySessionIdAndRound(id, session.getRound())
-                .stream()
-                .anyMatch(r -> r.getProviderId().equals(providerId));
-        if (!existsInRound) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Restaurant not found in current round");
-        }
+        membership.join(session, normalizedUserId);
 
         // Use VoteService for proper validation and processing
         VoteRequest processedRequest = new VoteRequest(
@@ -304,7 +304,11 @@ public class SessionController {
         );
         
         try {
-            voteService.processVote(processedRequest);
+            // Queued with the session's STOMP votes, so the two never race on the quota
+            voteQueue.await(id, () -> voteService.processVote(processedRequest));
+        } catch (EntityNotFoundException e) {
+            // VoteService looks the restaurant up in the current round
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (RuntimeException e) {
             if (e.getMessage().contains("exceeded voting limit")) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
@@ -328,17 +332,7 @@ public class SessionController {
             Session session = sessionRepository.findById(id)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session not found"));
                     
-            boolean isParticipant = sessionParticipantRepository
-                    .findBySessionIdAndUserId(id, normalizedUserId)
-                    .isPresent();
-            if (!isParticipant) {
-                // Automatically add authenticated user as participant
-                SessionParticipant participant = new SessionParticipant();
-                participant.setSession(session);
-                participant.setUserId(normalizedUserId);
-                participant.setJoinedAt(Instant.now());
-                sessionParticipantRepository.save(participant);
-            }
+            membership.join(session, normalizedUserId);
             
             int remaining = voteService.getRemainingLikes(normalizedUserId, id);
             return Map.of("remainingVotes", remaining);
@@ -365,46 +359,13 @@ public class SessionController {
         }
     }
 
-    // Get voting status for all participants
+    // Get voting status for all participants; changes are also pushed as votingStatus events
     @GetMapping("/{id}/voting-status")
-    public Map<String, Object> getVotingStatus(@PathVariable Long id) {
+    public VotingStatusDto getVotingStatus(@PathVariable Long id) {
         try {
-            Session session = repo.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Session not found"));
-            
-            List<SessionParticipant> participants = sessionParticipantRepository.findBySessionId(id);
-            int totalParticipants = participants.size();
-            int participantsWithNoVotesLeft = 0;
-            int totalVotesCast = 0;
-            int totalPossibleVotes = 0;
-            
-            // Calculate vote statistics for current round
-            for (SessionParticipant participant : participants) {
-                int remaining = voteService.getRemainingLikes(participant.getUserId(), id);
-                int maxVotes = (session.getRound() == 1) ? session.getLikesPerUser() : 1;
-                int votesUsed = maxVotes - remaining;
-                
-                totalVotesCast += votesUsed;
-                totalPossibleVotes += maxVotes;
-                
-                if (remaining == 0) {
-                    participantsWithNoVotesLeft++;
-                }
-            }
-            
-            boolean allVotesIn = participantsWithNoVotesLeft == totalParticipants;
-            
-            return Map.of(
-                "totalParticipants", totalParticipants,
-                "participantsWithNoVotesLeft", participantsWithNoVotesLeft,
-                "allVotesIn", allVotesIn,
-                "totalVotesCast", totalVotesCast,
-                "totalPossibleVotes", totalPossibleVotes,
-                "currentRound", session.getRound()
-            );
+            return votingStatusService.getVotingStatus(id);
         } catch (Exception e) {
-            return Map.of("allVotesIn", false, "totalParticipants", 0, "participantsWithNoVotesLeft", 0, 
-                         "totalVotesCast", 0, "totalPossibleVotes", 0, "currentRound", 1);
+            return new VotingStatusDto(0, 0, false, 0, 0, 1);
         }
     }
 
@@ -5,18 +5,38 @@ import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.security.Principal;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.foodsy.service.SessionTimerService;
 import com.foodsy.service.SessionService;
 import com.foodsy.service.RoundService;
-import com.foodsy.dto.RestaurantDto;
+import com.foodsy.service.SessionResultsService;
+import com.foodsy.service.SessionMembership;
+import com.foodsy.service.SessionOwnership;
+import com.foodsy.service.SessionVoteQueue;
+import com.foodsy.service.VoteService;
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.dto.ForwardedVote;
+import com.foodsy.dto.SessionResultsDto;
+import com.foodsy.dto.VoteMessage;
+import com.foodsy.dto.VoteReceipt;
+import com.foodsy.dto.VoteRequest;
+import com.foodsy.repository.SessionRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
 
 @Controller
 public class SessionEventsController {
@@ -26,16 +46,46 @@ public class SessionEventsController {
     private final SessionTimerService sessionTimerService;
     private final SessionService sessionService;
     private final RoundService roundService;
+    private final SessionResultsService sessionResultsService;
+    private final SessionRepository sessionRepository;
+    private final SessionMembership membership;
+    private final VoteService voteService;
+    private final SessionVoteQueue voteQueue;
+    private final SessionOwnership ownership;
+    private final ClusterPeerClient peerClient;
+
+    // Votes for sessions owned by another node wait on the owner's reply here
+    private final ExecutorService forwarder = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("vote-forward-", 0).factory());
 
     @Autowired
     public SessionEventsController(SimpMessagingTemplate messagingTemplate, 
                                  SessionTimerService sessionTimerService, 
                                  SessionService sessionService,
-                                 RoundService roundService) {
+                                 RoundService roundService,
+                                 SessionResultsService sessionResultsService,
+                                 SessionRepository sessionRepository,
+                                 SessionMembership membership,
+                                 VoteService voteService,
+                                 SessionVoteQueue voteQueue,
+                                 SessionOwnership ownership,
+                                 ClusterPeerClient peerClient) {
         this.messagingTemplate = messagingTemplate;
         this.sessionTimerService = sessionTimerService;
         this.sessionService = sessionService;
         this.roundService = roundService;
+        this.sessionResultsService = sessionResultsService;
+        this.sessionRepository = sessionRepository;
+        this.membership = membership;
+        this.voteService = voteService;
+        this.voteQueue = voteQueue;
+        this.ownership = ownership;
+        this.peerClient = peerClient;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forwarder.shutdown();
     }
 
     // Common event envelope
@@ -54,6 +104,42 @@ public class SessionEventsController {
     // Host triggers session start
     @MessageMapping("/session/{sessionId}/start")
     public void startSession(@DestinationVariable Long sessionId) {
+        runOnOwner(sessionId, "start");
+    }
+
+    /**
+     * Run a host command for a session owned by this node
+     */
+    public void runCommand(Long sessionId, String command) {
+        switch (command) {
+            case "start" -> startLocally(sessionId);
+            case "completeRound1" -> completeRound1Locally(sessionId);
+            case "completeRound2" -> completeRound2Locally(sessionId);
+            case "end" -> endLocally(sessionId);
+            default -> throw new IllegalArgumentException("Unknown session command: " + command);
+        }
+    }
+
+    // Commands change state the owner keeps in memory (timers, round progress), so they run there
+    private void runOnOwner(Long sessionId, String command) {
+        if (!ownership.isLocal(sessionId)) {
+            String owner = ownership.ownerOf(sessionId);
+            try {
+                peerClient.forwardCommand(owner, sessionId, command);
+                return;
+            } catch (Exception e) {
+                if (!ownership.canRunInsteadOf(owner, e)) {
+                    logger.error("Could not forward {} for session {} to {}: {}", command, sessionId, owner, e.getMessage());
+                    return;
+                }
+                logger.warn("Could not forward {} for session {} to {}, running it here: {}",
+                        command, sessionId, owner, e.getMessage());
+            }
+        }
+        runCommand(sessionId, command);
+    }
+
+    private void startLocally(Long sessionId) {
         SessionEvent event = new SessionEvent(
             "sessionStarted",
             Map.of(
@@ -70,6 +156,72 @@ public class SessionEventsController {
         }
     }
 
+    // Vote from the connection's authenticated user; the receipt goes back to this connection only
+    @MessageMapping("/session/{sessionId}/vote")
+    public void vote(@DestinationVariable Long sessionId, VoteMessage vote, Principal principal,
+                     @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String connectionId) {
+        if (principal == null) {
+            sendReceipt(connectionId, VoteReceipt.rejected(vote.receiptId(), "Authentication required to vote"));
+            return;
+        }
+        if (vote.providerId() == null || vote.voteType() == null) {
+            sendReceipt(connectionId, VoteReceipt.rejected(vote.receiptId(), "Restaurant and vote type are required"));
+            return;
+        }
+        String userId = principal.getName().trim().toLowerCase();
+
+        if (ownership.isLocal(sessionId)) {
+            voteQueue.submit(sessionId, () -> sendReceipt(connectionId, castVote(sessionId, userId, vote)));
+        } else {
+            // Only the owner serializes a session's votes; waiting on it here would stall
+            // every other session sharing the lane
+            forwarder.execute(() -> forwardVote(sessionId, userId, vote, connectionId));
+        }
+    }
+
+    /**
+     * Record a vote on this node; callers run it on the session's vote queue
+     */
+    public VoteReceipt castVote(Long sessionId, String userId, VoteMessage vote) {
+        try {
+            var session = sessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new EntityNotFoundException("Session not found"));
+            membership.join(session, userId);
+            return VoteReceipt.accepted(vote.receiptId(), voteService.processVote(
+                    new VoteRequest(sessionId, vote.providerId(), userId, vote.voteType())));
+        } catch (RuntimeException e) {
+            logger.debug("Vote rejected for session {}: {}", sessionId, e.getMessage());
+            return VoteReceipt.rejected(vote.receiptId(), e.getMessage());
+        }
+    }
+
+    private void forwardVote(Long sessionId, String userId, VoteMessage vote, String connectionId) {
+        String owner = ownership.ownerOf(sessionId);
+        VoteReceipt receipt;
+        try {
+            receipt = peerClient.forwardVote(owner, sessionId, new ForwardedVote(userId, vote));
+        } catch (Exception e) {
+            if (!ownership.canRunInsteadOf(owner, e)) {
+                logger.warn("Could not forward a vote for session {} to {}: {}", sessionId, owner, e.getMessage());
+                sendReceipt(connectionId, VoteReceipt.rejected(vote.receiptId(), "Session temporarily unavailable, try again"));
+                return;
+            }
+            logger.warn("Could not forward a vote for session {} to {}, recording it here: {}",
+                    sessionId, owner, e.getMessage());
+            voteQueue.submit(sessionId, () -> sendReceipt(connectionId, castVote(sessionId, userId, vote)));
+            return;
+        }
+        sendReceipt(connectionId, receipt);
+    }
+
+    private void sendReceipt(String connectionId, VoteReceipt receipt) {
+        // Addressed by connection id, which also reaches connections without a user
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(connectionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(connectionId, "/queue/vote-receipts", receipt, headers.getMessageHeaders());
+    }
+
     // Timer update event (can be called by backend timer service)
     @MessageMapping("/session/{sessionId}/timerUpdate")
     public void timerUpdate(@DestinationVariable Long sessionId, Long millisLeft) {
@@ -86,6 +238,10 @@ public class SessionEventsController {
     // Round 1 complete - transition to round 2 (host triggers)
     @MessageMapping("/session/{sessionId}/completeRound1")
     public void completeRound1(@DestinationVariable Long sessionId) {
+        runOnOwner(sessionId, "completeRound1");
+    }
+
+    private void completeRound1Locally(Long sessionId) {
         try {
             // Use RoundService to handle the transition
             roundService.transitionToRound2(sessionId);
@@ -97,6 +253,10 @@ public class SessionEventsController {
     // Round 2 complete - finish session and show results (host triggers)
     @MessageMapping("/session/{sessionId}/completeRound2") 
     public void completeRound2(@DestinationVariable Long sessionId) {
+        runOnOwner(sessionId, "completeRound2");
+    }
+
+    private void completeRound2Locally(Long sessionId) {
         try {
             // Use RoundService to complete the session
             roundService.completeSession(sessionId);
@@ -137,27 +297,28 @@ public class SessionEventsController {
     // Session end event (host or backend triggers)
     @MessageMapping("/session/{sessionId}/end")
     public void endSession(@DestinationVariable Long sessionId) {
-        // Calculate final results and update session status
+        runOnOwner(sessionId, "end");
+    }
+
+    private void endLocally(Long sessionId) {
+        // Update session status, then calculate final results
         try {
-            List<RestaurantDto> finalRankings = sessionService.getFinalRankings(sessionId);
-            RestaurantDto winner = sessionService.getWinner(sessionId);
-            int totalParticipants = sessionService.getParticipants(sessionId).size();
-            int totalVotes = sessionService.getTotalVotes(sessionId);
-            
-            // Update session status to ENDED
+            // Update session status to ENDED first, so results are only cached as final
+            // for a session that really ended
             sessionService.endSession(sessionId);
             
-            SessionEvent event = new SessionEvent(
-                "sessionEnd",
-                Map.of(
-                    "sessionId", sessionId,
-                    "endTime", Instant.now().toString(),
-                    "winner", winner,
-                    "finalRankings", finalRankings,
-                    "totalParticipants", totalParticipants,
-                    "totalVotes", totalVotes
-                )
-            );
+            SessionResultsDto results = sessionResultsService.finalizeResults(sessionId);
+            int totalParticipants = sessionService.getParticipants(sessionId).size();
+            
+            // A session ended before anyone liked a restaurant has no winner; Map.of rejects null
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("sessionId", sessionId);
+            payload.put("endTime", Instant.now().toString());
+            payload.put("winner", results.winner());
+            payload.put("finalRankings", results.rankings());
+            payload.put("totalParticipants", totalParticipants);
+            payload.put("totalVotes", results.totalVotes());
+            SessionEvent event = new SessionEvent("sessionEnd", payload);
             messagingTemplate.convertAndSend("/topic/session/" + sessionId, event);
         } catch (Exception e) {
             logger.error("Failed to end session: {}", e.getMessage(), e);
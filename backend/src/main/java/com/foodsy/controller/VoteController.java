@@ -3,6 +3,7 @@ package com.foodsy.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.foodsy.service.SessionVoteQueue;
 import com.foodsy.service.VoteService;
 import com.foodsy.dto.VoteRequest;
 
@@ -12,14 +13,16 @@ import com.foodsy.dto.VoteRequest;
 public class VoteController {
 
     private final VoteService voteService;
+    private final SessionVoteQueue voteQueue;
 
-    public VoteController(VoteService voteService) {
+    public VoteController(VoteService voteService, SessionVoteQueue voteQueue) {
         this.voteService = voteService;
+        this.voteQueue = voteQueue;
     }
 
     @PostMapping
     public ResponseEntity<Void> submitVote(@RequestBody VoteRequest voteRequest) {
-        voteService.processVote(voteRequest);
+        voteQueue.await(voteRequest.sessionId(), () -> voteService.processVote(voteRequest));
         return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,48 @@
+package com.foodsy.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Daily event counts per actor and section (UTC days). An actor is a user
+ * ("u:{id}") or, for anonymous traffic, a browser session ("s:{id}").
+ * Missing section is stored as ''. Maintained incrementally by AnalyticsRollupService.
+ */
+@Entity
+@Table(name = "analytics_actor_daily",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uc_analytics_actor_daily",
+           columnNames = {"bucket_date", "actor_key", "section"}
+       ))
+public class AnalyticsActorDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "actor_key", nullable = false)
+    private String actorKey;
+
+    @Column(name = "section", nullable = false, length = 50)
+    private String section;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    public Long getId() { return id; }
+    public LocalDate getBucketDate() { return bucketDate; }
+    public String getActorKey() { return actorKey; }
+    public String getSection() { return section; }
+    public Long getUserId() { return userId; }
+    public String getSessionId() { return sessionId; }
+    public Long getEventCount() { return eventCount; }
+}
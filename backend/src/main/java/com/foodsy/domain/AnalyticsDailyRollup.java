@@ -0,0 +1,44 @@
+package com.foodsy.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Daily event counts per event type, section and restaurant (UTC days).
+ * Missing section or place id is stored as '' so the natural key stays unique.
+ * Maintained incrementally by AnalyticsRollupService.
+ */
+@Entity
+@Table(name = "analytics_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uc_analytics_daily_rollup",
+           columnNames = {"bucket_date", "event_type", "section", "place_id"}
+       ))
+public class AnalyticsDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "section", nullable = false, length = 50)
+    private String section;
+
+    @Column(name = "place_id", nullable = false)
+    private String placeId;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    public Long getId() { return id; }
+    public LocalDate getBucketDate() { return bucketDate; }
+    public String getEventType() { return eventType; }
+    public String getSection() { return section; }
+    public String getPlaceId() { return placeId; }
+    public Long getEventCount() { return eventCount; }
+}
@@ -0,0 +1,44 @@
+package com.foodsy.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Hourly event counts per event type, section and restaurant.
+ * Missing section or place id is stored as '' so the natural key stays unique.
+ * Maintained incrementally by AnalyticsRollupService.
+ */
+@Entity
+@Table(name = "analytics_hourly_rollup",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uc_analytics_hourly_rollup",
+           columnNames = {"bucket_start", "event_type", "section", "place_id"}
+       ))
+public class AnalyticsHourlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "section", nullable = false, length = 50)
+    private String section;
+
+    @Column(name = "place_id", nullable = false)
+    private String placeId;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    public Long getId() { return id; }
+    public Instant getBucketStart() { return bucketStart; }
+    public String getEventType() { return eventType; }
+    public String getSection() { return section; }
+    public String getPlaceId() { return placeId; }
+    public Long getEventCount() { return eventCount; }
+}
@@ -0,0 +1,62 @@
+package com.foodsy.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Serialized HyperLogLog sketch of the distinct users seen in one hour or day
+ * bucket, either for one section or for all sections (section = '').
+ * Maintained by UniqueUserSketchService; merged rather than overwritten, so
+ * several nodes can flush into the same row.
+ */
+@Entity
+@Table(name = "analytics_user_sketch",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uc_analytics_user_sketch",
+           columnNames = {"granularity", "bucket_start", "section"}
+       ))
+public class AnalyticsUserSketch {
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+    public static final String ALL_SECTIONS = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analytics_user_sketch_seq")
+    @SequenceGenerator(name = "analytics_user_sketch_seq", sequenceName = "analytics_user_sketch_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "granularity", nullable = false, length = 8)
+    private String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "section", nullable = false, length = 50)
+    private String section;
+
+    @Column(name = "registers", nullable = false, length = 16386) // up to precision 14
+    private byte[] registers;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public AnalyticsUserSketch() {}
+
+    public AnalyticsUserSketch(String granularity, Instant bucketStart, String section) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.section = section;
+    }
+
+    public Long getId() { return id; }
+    public String getGranularity() { return granularity; }
+    public Instant getBucketStart() { return bucketStart; }
+    public String getSection() { return section; }
+
+    public byte[] getRegisters() { return registers; }
+    public void setRegisters(byte[] registers) { this.registers = registers; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
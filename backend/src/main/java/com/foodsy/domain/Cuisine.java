@@ -0,0 +1,97 @@
+package com.foodsy.domain;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cuisines a taste profile can select. A selection is stored as a bitmask with
+ * bit n set for the constant with ordinal n, so constants must only ever be
+ * appended - never reordered or removed.
+ */
+public enum Cuisine {
+    ITALIAN("Italian"),
+    CHINESE("Chinese"),
+    MEXICAN("Mexican"),
+    AMERICAN("American"),
+    THAI("Thai"),
+    INDIAN("Indian"),
+    JAPANESE("Japanese"),
+    KOREAN("Korean"),
+    MEDITERRANEAN("Mediterranean"),
+    FRENCH("French"),
+    VEGAN("Vegan"),
+    VEGETARIAN("Vegetarian"),
+    GREEK("Greek"),
+    VIETNAMESE("Vietnamese"),
+    TURKISH("Turkish"),
+    LEBANESE("Lebanese"),
+    SPANISH("Spanish"),
+    BRAZILIAN("Brazilian");
+
+    /** Selections that express a dietary preference rather than a cuisine */
+    public static final int DIETARY_MASK = VEGAN.bit() | VEGETARIAN.bit();
+
+    private final String displayName;
+
+    Cuisine(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static Optional<Cuisine> fromDisplayName(String name) {
+        for (Cuisine cuisine : values()) {
+            if (cuisine.displayName.equalsIgnoreCase(name)) {
+                return Optional.of(cuisine);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Encode display names as a bitmask; unknown names are ignored
+     */
+    public static int toMask(Collection<String> names) {
+        int mask = 0;
+        if (names != null) {
+            for (String name : names) {
+                mask |= fromDisplayName(name).map(Cuisine::bit).orElse(0);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Decode a bitmask into display names, in declaration order
+     */
+    public static Set<String> fromMask(int mask) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Cuisine cuisine : values()) {
+            if ((mask & cuisine.bit()) != 0) {
+                names.add(cuisine.displayName);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Jaccard similarity of two selections: shared bits over combined bits
+     */
+    public static double similarity(int a, int b) {
+        int union = Integer.bitCount(a | b);
+        return union == 0 ? 0.0 : (double) Integer.bitCount(a & b) / union;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -16,7 +16,8 @@ import java.time.Instant;
 public class HomepageAnalytics {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "homepage_analytics_seq")
+    @SequenceGenerator(name = "homepage_analytics_seq", sequenceName = "homepage_analytics_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
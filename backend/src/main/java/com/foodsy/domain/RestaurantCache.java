@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Table(name = "restaurant_cache", 
@@ -14,12 +15,16 @@ import java.util.List;
            @Index(name = "idx_neighborhood", columnList = "neighborhood"),
            @Index(name = "idx_expires_at", columnList = "expires_at"),
            @Index(name = "idx_price_level", columnList = "price_level"),
-           @Index(name = "idx_category", columnList = "category")
+           @Index(name = "idx_category", columnList = "category"),
+           @Index(name = "idx_borough_category_expires_rating",
+                  columnList = "borough, category_normalized, expires_at, rating"),
+           @Index(name = "idx_latitude_longitude", columnList = "latitude, longitude")
        })
 public class RestaurantCache {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "restaurant_cache_seq")
+    @SequenceGenerator(name = "restaurant_cache_seq", sequenceName = "restaurant_cache_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "place_id", unique = true, nullable = false)
@@ -33,6 +38,9 @@ public class RestaurantCache {
     @Column(name = "category")
     private String category;
     
+    @Column(name = "category_normalized")
+    private String categoryNormalized; // trimmed, lower-case category for exact-match lookups
+    
     @Column(name = "rating")
     private Double rating;
     
@@ -137,6 +145,15 @@ public class RestaurantCache {
     
     public void setCategory(String category) {
         this.category = category;
+        this.categoryNormalized = normalizeCategory(category);
+    }
+    
+    public String getCategoryNormalized() {
+        return categoryNormalized;
+    }
+    
+    public static String normalizeCategory(String category) {
+        return category != null ? category.trim().toLowerCase(Locale.ROOT) : null;
     }
     
     public Double getRating() {
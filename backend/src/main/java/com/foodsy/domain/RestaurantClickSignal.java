@@ -0,0 +1,41 @@
+package com.foodsy.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Checkpoint of the time-decayed card click counter for a restaurant.
+ * The live value is kept in memory by ClickTrendTracker; this row lets it
+ * survive restarts without re-reading homepage_analytics.
+ */
+@Entity
+@Table(name = "restaurant_click_signal")
+public class RestaurantClickSignal {
+
+    @Id
+    @Column(name = "place_id", nullable = false)
+    private String placeId;
+
+    @Column(name = "decayed_clicks", nullable = false)
+    private Double decayedClicks;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public RestaurantClickSignal() {}
+
+    public RestaurantClickSignal(String placeId, Double decayedClicks, Instant updatedAt) {
+        this.placeId = placeId;
+        this.decayedClicks = decayedClicks;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getPlaceId() { return placeId; }
+    public void setPlaceId(String placeId) { this.placeId = placeId; }
+
+    public Double getDecayedClicks() { return decayedClicks; }
+    public void setDecayedClicks(Double decayedClicks) { this.decayedClicks = decayedClicks; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,17 +1,25 @@
 package com.foodsy.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.Instant;
 
 @Entity
+@DynamicUpdate // saves must not overwrite last_activity_at written by SessionActivityTracker
 @Table(
         name = "session",
-        uniqueConstraints = @UniqueConstraint(columnNames = "join_code"
-        )
+        indexes = @Index(name = "idx_session_join_code", columnList = "join_code")
 )
 public class Session {
+    /**
+     * Statuses that free the join code. Uniqueness of join_code is only enforced for
+     * sessions outside these statuses (see DatabaseSchemaInitializer).
+     */
+    public static final String RELEASED_STATUSES_SQL = "'ended', 'ENDED', 'expired'";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_seq")
+    @SequenceGenerator(name = "session_seq", sequenceName = "session_seq", allocationSize = 50)
     private Long id;
     
     private String creatorId;
@@ -25,7 +33,7 @@ public class Session {
     private Instant lastActivityAt = Instant.now(); // Track last user activity
     private Instant expiresAt; // When session should auto-close
 
-    @Column(name = "join_code", unique = true, nullable = false, length = 6)
+    @Column(name = "join_code", nullable = false, length = 6)
     private String joinCode;
 
     // Getters / Setters
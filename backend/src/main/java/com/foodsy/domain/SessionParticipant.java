@@ -8,7 +8,8 @@ import java.time.Instant;
 uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "user_id"} ))
 public class SessionParticipant {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_participant_seq")
+    @SequenceGenerator(name = "session_participant_seq", sequenceName = "session_participant_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
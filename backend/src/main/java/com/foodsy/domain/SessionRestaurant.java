@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 @Entity
 public class SessionRestaurant {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_restaurant_seq")
+    @SequenceGenerator(name = "session_restaurant_seq", sequenceName = "session_restaurant_seq", allocationSize = 50)
     private Long id;
     @Lob
     private Long sessionId; // FK to Session
@@ -15,7 +15,8 @@ public class SessionRestaurantVote {
 
     // ---------- primary key ----------
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_restaurant_vote_seq")
+    @SequenceGenerator(name = "session_restaurant_vote_seq", sequenceName = "session_restaurant_vote_seq", allocationSize = 50)
     private Long id;
 
     // ---------- relations ----------
@@ -10,7 +10,8 @@ import java.time.Instant;
 )
 public class SessionVoteHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_vote_history_seq")
+    @SequenceGenerator(name = "session_vote_history_seq", sequenceName = "session_vote_history_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "session_id", nullable = false)
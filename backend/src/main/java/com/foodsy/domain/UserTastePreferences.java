@@ -10,7 +10,8 @@ import java.util.Set;
 public class UserTastePreferences {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_taste_preferences_seq")
+    @SequenceGenerator(name = "user_taste_preferences_seq", sequenceName = "user_taste_preferences_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -18,10 +19,8 @@ public class UserTastePreferences {
     @NotNull
     private User user;
     
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_preferred_cuisines", joinColumns = @JoinColumn(name = "preference_id"))
-    @Column(name = "cuisine")
-    private Set<String> preferredCuisines; // Italian, Chinese, Mexican, Vegan, Vegetarian, etc.
+    @Column(name = "cuisine_mask", nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int cuisineMask; // one bit per Cuisine (Italian, Chinese, Mexican, Vegan, Vegetarian, etc.)
     
     @Column(name = "price_range", length = 10)
     private String priceRange; // $, $$, $$$
@@ -40,7 +39,7 @@ public class UserTastePreferences {
     
     public UserTastePreferences(User user, Set<String> preferredCuisines, String priceRange, String preferredBorough) {
         this.user = user;
-        this.preferredCuisines = preferredCuisines;
+        this.cuisineMask = Cuisine.toMask(preferredCuisines);
         this.priceRange = priceRange;
         this.preferredBorough = preferredBorough;
     }
@@ -62,12 +61,20 @@ public class UserTastePreferences {
         this.user = user;
     }
     
+    public int getCuisineMask() {
+        return cuisineMask;
+    }
+    
+    public void setCuisineMask(int cuisineMask) {
+        this.cuisineMask = cuisineMask;
+    }
+    
     public Set<String> getPreferredCuisines() {
-        return preferredCuisines;
+        return Cuisine.fromMask(cuisineMask);
     }
     
     public void setPreferredCuisines(Set<String> preferredCuisines) {
-        this.preferredCuisines = preferredCuisines;
+        this.cuisineMask = Cuisine.toMask(preferredCuisines);
     }
     
     public String getPriceRange() {
@@ -120,7 +127,6 @@ public class UserTastePreferences {
     
     // Helper method to check if user prefers vegan/vegetarian options
     public boolean hasVeganVegetarianPreference() {
-        return preferredCuisines != null && 
-               (preferredCuisines.contains("Vegan") || preferredCuisines.contains("Vegetarian"));
+        return (cuisineMask & Cuisine.DIETARY_MASK) != 0;
     }
 } 
\ No newline at end of file
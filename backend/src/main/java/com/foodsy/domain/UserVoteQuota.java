@@ -10,7 +10,8 @@ import java.time.Instant;
 )
 public class UserVoteQuota {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_vote_quota_seq")
+    @SequenceGenerator(name = "user_vote_quota_seq", sequenceName = "user_vote_quota_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "session_id", nullable = false)
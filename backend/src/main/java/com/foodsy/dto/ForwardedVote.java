@@ -0,0 +1,9 @@
+package com.foodsy.dto;
+
+/**
+ * A vote received over STOMP by one node and handed to the node owning its session
+ */
+public record ForwardedVote(
+        String userId,
+        VoteMessage vote
+) {}
@@ -62,6 +62,27 @@ public class RestaurantSummaryDto {
         return dto;
     }
     
+    // Copy with analytics data; photo references are shared and must not be mutated
+    public RestaurantSummaryDto withAnalytics(Integer clickCount, Double popularityScore) {
+        RestaurantSummaryDto dto = new RestaurantSummaryDto(placeId, name, category);
+        dto.setRating(rating);
+        dto.setPriceLevel(priceLevel);
+        dto.setPriceRange(priceRange);
+        dto.setAddress(address);
+        dto.setBorough(borough);
+        dto.setNeighborhood(neighborhood);
+        dto.setPhotoReferences(photoReferences);
+        dto.setUserRatingCount(userRatingCount);
+        dto.setGenerativeSummary(generativeSummary);
+        dto.setReviewSummary(reviewSummary);
+        dto.setOpeningHours(openingHours);
+        dto.setLatitude(latitude);
+        dto.setLongitude(longitude);
+        dto.setClickCount(clickCount);
+        dto.setPopularityScore(popularityScore);
+        return dto;
+    }
+    
     // Factory method with analytics data
     public static RestaurantSummaryDto fromEntityWithAnalytics(RestaurantCache entity, Integer clickCount, Double popularityScore) {
         RestaurantSummaryDto dto = fromEntity(entity);
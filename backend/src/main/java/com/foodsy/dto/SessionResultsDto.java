@@ -0,0 +1,32 @@
+package com.foodsy.dto;
+
+import java.util.List;
+
+/**
+ * Standings of a session: the restaurants of the last round played, ranked by their
+ * combined round 1 and round 2 likes. totalVotes counts likes across both rounds.
+ */
+public record SessionResultsDto(
+        Long sessionId,
+        int round,
+        Entry winner,
+        List<Entry> rankings,
+        int totalVotes
+) {
+    public record Entry(
+            Long id,
+            String providerId,
+            String name,
+            String address,
+            String category,
+            Double rating,
+            Integer userRatingCount,
+            String currentOpeningHours,
+            String generativeSummary,
+            String reviewSummary,
+            String priceRange,
+            int voteCount,
+            int round1Votes,
+            int round2Votes
+    ) {}
+}
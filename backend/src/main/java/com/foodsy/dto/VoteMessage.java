@@ -0,0 +1,13 @@
+package com.foodsy.dto;
+
+import com.foodsy.domain.VoteType;
+
+/**
+ * A vote sent to /app/session/{sessionId}/vote; the voter is the user the STOMP
+ * connection authenticated as
+ */
+public record VoteMessage(
+        String providerId,
+        VoteType voteType,
+        String receiptId
+) {}
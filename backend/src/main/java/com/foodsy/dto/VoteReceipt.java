@@ -0,0 +1,21 @@
+package com.foodsy.dto;
+
+/**
+ * Reply to a vote sent over STOMP, delivered to the voter on /user/queue/vote-receipts.
+ * receiptId echoes the id the client sent with the vote; result is null when the vote
+ * was rejected, and error says why.
+ */
+public record VoteReceipt(
+        String receiptId,
+        boolean accepted,
+        VoteResult result,
+        String error
+) {
+    public static VoteReceipt accepted(String receiptId, VoteResult result) {
+        return new VoteReceipt(receiptId, true, result, null);
+    }
+
+    public static VoteReceipt rejected(String receiptId, String error) {
+        return new VoteReceipt(receiptId, false, null, error);
+    }
+}
@@ -0,0 +1,12 @@
+package com.foodsy.dto;
+
+/**
+ * Outcome of an accepted vote: the restaurant's like count and the voter's remaining
+ * likes in the round, both after the vote
+ */
+public record VoteResult(
+        String providerId,
+        int round,
+        int likeCount,
+        int remainingVotes
+) {}
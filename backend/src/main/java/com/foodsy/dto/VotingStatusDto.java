@@ -0,0 +1,13 @@
+package com.foodsy.dto;
+
+/**
+ * Progress of the current round across all participants of a session
+ */
+public record VotingStatusDto(
+        int totalParticipants,
+        int participantsWithNoVotesLeft,
+        boolean allVotesIn,
+        int totalVotesCast,
+        int totalPossibleVotes,
+        int currentRound
+) {}
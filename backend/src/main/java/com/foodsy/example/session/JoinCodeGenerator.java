@@ -5,9 +5,49 @@ import java.util.Random;
 public class JoinCodeGenerator {
     private static final Random RANDOM = new Random();
 
+    // Six digit codes, split into two base-1000 halves for the Feistel rounds below
+    public static final int CODE_SPACE = 1_000_000;
+    private static final int HALF = 1_000;
+    private static final int ROUNDS = 4;
+
    public static String generate() {
        int number = RANDOM.nextInt(1_000_000);
        return String.format("%06d", number); // Ensures leading zeros is ok
 
    }
+
+    /**
+     * Map a sequence number onto a join code. The mapping is a keyed bijection over
+     * [0, CODE_SPACE), so CODE_SPACE consecutive sequence numbers never share a code.
+     */
+    public static String fromSequence(long sequence, long key) {
+        return format(permute((int) Math.floorMod(sequence, (long) CODE_SPACE), key));
+    }
+
+    public static String format(int number) {
+        return String.format("%06d", number);
+    }
+
+    /**
+     * Balanced Feistel network over two base-1000 halves. Each round is invertible
+     * whatever the round function, so the whole permutation is a bijection.
+     */
+    static int permute(int value, long key) {
+        int left = value / HALF;
+        int right = value % HALF;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = Math.floorMod(left + roundFunction(right, key, round), HALF);
+            left = right;
+            right = next;
+        }
+        return left * HALF + right;
+    }
+
+    private static int roundFunction(int half, long key, int round) {
+        long x = (half + 1L) * 0x9E3779B97F4A7C15L ^ (key + round * 0xBF58476D1CE4E5B9L);
+        x ^= x >>> 31;
+        x *= 0x94D049BB133111EBL;
+        x ^= x >>> 29;
+        return (int) Math.floorMod(x, (long) HALF);
+    }
 }
@@ -0,0 +1,26 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.AnalyticsActorDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsActorDailyRepository extends JpaRepository<AnalyticsActorDaily, Long> {
+
+    /**
+     * Find user engagement score (events per user in time period)
+     */
+    @Query("SELECT a.userId, SUM(a.eventCount) FROM AnalyticsActorDaily a WHERE a.userId IS NOT NULL " +
+           "AND a.bucketDate >= :since GROUP BY a.userId ORDER BY SUM(a.eventCount) DESC")
+    List<Object[]> findUserEngagementScores(@Param("since") LocalDate since);
+
+    /**
+     * Find anonymous session activity
+     */
+    @Query("SELECT a.sessionId, SUM(a.eventCount) FROM AnalyticsActorDaily a WHERE a.userId IS NULL " +
+           "AND a.sessionId IS NOT NULL AND a.bucketDate >= :since GROUP BY a.sessionId ORDER BY SUM(a.eventCount) DESC")
+    List<Object[]> findAnonymousSessionActivity(@Param("since") LocalDate since);
+}
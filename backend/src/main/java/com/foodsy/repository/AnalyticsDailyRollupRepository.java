@@ -0,0 +1,57 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.AnalyticsDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsDailyRollupRepository extends JpaRepository<AnalyticsDailyRollup, Long> {
+
+    /**
+     * Count events by type (all time)
+     */
+    @Query("SELECT r.eventType, SUM(r.eventCount) FROM AnalyticsDailyRollup r GROUP BY r.eventType")
+    List<Object[]> countByEventType();
+
+    /**
+     * Count events by section (all time)
+     */
+    @Query("SELECT r.section, SUM(r.eventCount) FROM AnalyticsDailyRollup r WHERE r.section <> '' GROUP BY r.section")
+    List<Object[]> countBySection();
+
+    /**
+     * Count events by type since a day
+     */
+    @Query("SELECT r.eventType, SUM(r.eventCount) FROM AnalyticsDailyRollup r WHERE r.bucketDate >= :since GROUP BY r.eventType")
+    List<Object[]> countByEventTypeSince(@Param("since") LocalDate since);
+
+    /**
+     * Count card clicks by section since a day
+     */
+    @Query("SELECT r.section, SUM(r.eventCount) FROM AnalyticsDailyRollup r WHERE r.eventType = 'card_click' " +
+           "AND r.section <> '' AND r.bucketDate >= :since GROUP BY r.section ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> countCardClicksBySection(@Param("since") LocalDate since);
+
+    /**
+     * Find most clicked restaurants since a day
+     */
+    @Query("SELECT r.placeId, SUM(r.eventCount) FROM AnalyticsDailyRollup r WHERE r.eventType = 'card_click' " +
+           "AND r.placeId <> '' AND r.bucketDate >= :since GROUP BY r.placeId ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> findMostClickedRestaurants(@Param("since") LocalDate since);
+
+    /**
+     * Conversion funnel counts since a day in one pass: section views, onboarding
+     * views, taste profile completions and session starts
+     */
+    @Query("SELECT " +
+           "COALESCE(SUM(CASE WHEN r.eventType = 'section_view' THEN r.eventCount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.eventType = 'section_view' AND r.section = 'onboarding' THEN r.eventCount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.eventType = 'taste_profile_complete' THEN r.eventCount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.eventType = 'start_session' THEN r.eventCount ELSE 0 END), 0) " +
+           "FROM AnalyticsDailyRollup r WHERE r.bucketDate >= :since " +
+           "AND r.eventType IN ('section_view', 'taste_profile_complete', 'start_session')")
+    List<Object[]> findConversionFunnel(@Param("since") LocalDate since);
+}
@@ -0,0 +1,30 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.AnalyticsHourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AnalyticsHourlyRollupRepository extends JpaRepository<AnalyticsHourlyRollup, Long> {
+
+    /**
+     * Event counts by hour of day (UTC) since a point in time
+     */
+    @Query(value = "SELECT EXTRACT(hour FROM bucket_start AT TIME ZONE 'UTC') AS hour, SUM(event_count) " +
+                   "FROM analytics_hourly_rollup WHERE bucket_start >= :since " +
+                   "GROUP BY EXTRACT(hour FROM bucket_start AT TIME ZONE 'UTC') ORDER BY hour", nativeQuery = true)
+    List<Object[]> findHourlyActivityDistribution(@Param("since") Instant since);
+
+    /**
+     * Drop hourly buckets older than the retention period (daily rollups are kept)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalyticsHourlyRollup r WHERE r.bucketStart < :retentionDate")
+    int deleteOlderThan(@Param("retentionDate") Instant retentionDate);
+}
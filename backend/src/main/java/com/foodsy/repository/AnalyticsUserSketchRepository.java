@@ -0,0 +1,41 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.AnalyticsUserSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface AnalyticsUserSketchRepository extends JpaRepository<AnalyticsUserSketch, Long> {
+
+    /**
+     * Lock a sketch row for a read-merge-write flush
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AnalyticsUserSketch s WHERE s.granularity = :granularity " +
+           "AND s.bucketStart = :bucketStart AND s.section = :section")
+    Optional<AnalyticsUserSketch> findForUpdate(@Param("granularity") String granularity,
+                                                @Param("bucketStart") Instant bucketStart,
+                                                @Param("section") String section);
+
+    /**
+     * Sketches of one granularity from a bucket onwards
+     */
+    @Query("SELECT s FROM AnalyticsUserSketch s WHERE s.granularity = :granularity AND s.bucketStart >= :since")
+    List<AnalyticsUserSketch> findSince(@Param("granularity") String granularity, @Param("since") Instant since);
+
+    /**
+     * Drop sketches older than the retention period
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalyticsUserSketch s WHERE s.granularity = :granularity AND s.bucketStart < :retentionDate")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("retentionDate") Instant retentionDate);
+}
@@ -3,9 +3,11 @@ package com.foodsy.repository;
 import com.foodsy.domain.HomepageAnalytics;
 import com.foodsy.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -93,9 +95,9 @@ public interface HomepageAnalyticsRepository extends JpaRepository<HomepageAnaly
     List<Object[]> findAnonymousSessionActivity(@Param("since") Instant since);
     
     /**
-     * Find events by type and date range
+     * Find events by type and date range; a null event type matches every type
      */
-    @Query("SELECT h FROM HomepageAnalytics h WHERE h.eventType = :eventType AND h.createdAt BETWEEN :startDate AND :endDate ORDER BY h.createdAt DESC")
+    @Query("SELECT h FROM HomepageAnalytics h WHERE (:eventType IS NULL OR h.eventType = :eventType) AND h.createdAt BETWEEN :startDate AND :endDate ORDER BY h.createdAt DESC")
     List<HomepageAnalytics> findByEventTypeAndDateRange(@Param("eventType") String eventType, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
     
     /**
@@ -105,8 +107,20 @@ public interface HomepageAnalyticsRepository extends JpaRepository<HomepageAnaly
     List<Object[]> findHourlyActivityDistribution(@Param("since") Instant since);
     
     /**
-     * Clean up old analytics data (older than retention period)
+     * Card clicks per (username, restaurant) since a time, for the recommendation model
      */
+    @Query(value = "SELECT u.username, h.restaurant_place_id, COUNT(*) FROM homepage_analytics h " +
+                   "JOIN users u ON u.id = h.user_id " +
+                   "WHERE h.event_type = 'card_click' AND h.restaurant_place_id IS NOT NULL AND h.created_at >= :since " +
+                   "GROUP BY u.username, h.restaurant_place_id", nativeQuery = true)
+    List<Object[]> countCardClicksByUser(@Param("since") Instant since);
+    
+    /**
+     * Clean up old analytics data (older than retention period). Only used where the
+     * table is not partitioned; see AnalyticsPartitionService.
+     */
+    @Modifying
+    @Transactional
     @Query("DELETE FROM HomepageAnalytics h WHERE h.createdAt < :retentionDate")
     int deleteOldAnalytics(@Param("retentionDate") Instant retentionDate);
     
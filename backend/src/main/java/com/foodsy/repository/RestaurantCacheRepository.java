@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,27 @@ public interface RestaurantCacheRepository extends JpaRepository<RestaurantCache
      */
     Optional<RestaurantCache> findByPlaceId(String placeId);
     
+    /**
+     * Find non-expired restaurants inside a latitude/longitude bounding box
+     */
+    @Query("SELECT r FROM RestaurantCache r WHERE r.latitude BETWEEN :minLat AND :maxLat " +
+           "AND r.longitude BETWEEN :minLng AND :maxLng AND r.expiresAt > :now")
+    List<RestaurantCache> findLiveInBoundingBox(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                                @Param("minLng") double minLng, @Param("maxLng") double maxLng,
+                                                @Param("now") Instant now);
+    
+    /**
+     * Find all non-expired restaurants that have coordinates
+     */
+    @Query("SELECT r FROM RestaurantCache r WHERE r.latitude IS NOT NULL AND r.longitude IS NOT NULL AND r.expiresAt > :now")
+    List<RestaurantCache> findLiveWithCoordinates(@Param("now") Instant now);
+    
+    /**
+     * Find non-expired restaurants by place id
+     */
+    @Query("SELECT r FROM RestaurantCache r WHERE r.placeId IN :placeIds AND r.expiresAt > :now")
+    List<RestaurantCache> findLiveByPlaceIds(@Param("placeIds") Collection<String> placeIds, @Param("now") Instant now);
+    
     /**
      * Find non-expired restaurants by borough
      */
@@ -47,10 +69,15 @@ public interface RestaurantCacheRepository extends JpaRepository<RestaurantCache
     List<RestaurantCache> findByCategory(@Param("category") String category, @Param("now") Instant now);
     
     /**
-     * Find restaurants by category and borough
+     * Find restaurants in a borough matching any of several normalized categories, best rated first
      */
-    @Query("SELECT r FROM RestaurantCache r WHERE r.category ILIKE %:category% AND r.borough = :borough AND r.expiresAt > :now ORDER BY r.rating DESC")
-    List<RestaurantCache> findByCategoryAndBorough(@Param("category") String category, @Param("borough") String borough, @Param("now") Instant now);
+    @Query("SELECT r FROM RestaurantCache r WHERE r.borough = :borough AND r.categoryNormalized IN :categories " +
+           "AND r.expiresAt > :now AND r.rating >= :minRating ORDER BY r.rating DESC, r.userRatingCount DESC")
+    List<RestaurantCache> findByCategoriesInBorough(@Param("borough") String borough,
+                                                    @Param("categories") Collection<String> categories,
+                                                    @Param("minRating") Double minRating,
+                                                    @Param("now") Instant now,
+                                                    Pageable pageable);
     
     /**
      * Find top-rated restaurants in a borough
@@ -141,6 +168,13 @@ public interface RestaurantCacheRepository extends JpaRepository<RestaurantCache
     
     // ===== TRENDING METHODS =====
     
+    /**
+     * All non-expired restaurants in a borough with their photo references (trending rebuild)
+     */
+    @Query("SELECT DISTINCT r FROM RestaurantCache r LEFT JOIN FETCH r.photoReferences " +
+           "WHERE r.borough = :borough AND r.expiresAt > :now")
+    List<RestaurantCache> findLiveInBoroughWithPhotos(@Param("borough") String borough, @Param("now") Instant now);
+    
     /**
      * Find trending restaurants by borough ordered by trending rank
      */
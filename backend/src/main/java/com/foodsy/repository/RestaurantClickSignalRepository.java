@@ -0,0 +1,7 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.RestaurantClickSignal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RestaurantClickSignalRepository extends JpaRepository<RestaurantClickSignal, String> {
+}
@@ -1,6 +1,8 @@
 package com.foodsy.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.foodsy.domain.SessionParticipant;
 
 import java.util.List;
@@ -11,4 +13,7 @@ public interface SessionParticipantRepository extends JpaRepository<SessionParti
     List<SessionParticipant> findBySessionId(Long sessionId);
     Optional<SessionParticipant> findBySessionIdAndUserId(Long sessionId, String userId);
     int countBySessionId(Long sessionId);
+
+    @Query("SELECT p.userId FROM SessionParticipant p WHERE p.session.id = :sessionId")
+    List<String> findUserIdsBySessionId(@Param("sessionId") Long sessionId);
 }
@@ -2,16 +2,63 @@ package com.foodsy.repository;
 
 import com.foodsy.domain.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 
 public interface SessionRepository extends JpaRepository<Session, Long> {
-    Optional<Session> findByJoinCode(String joinCode);
-    
-    
+    /**
+     * Find the live session holding a join code. Codes are recycled once a session
+     * ends or expires, so older rows may share the same code.
+     */
+    @Query("SELECT s FROM Session s WHERE s.joinCode = :joinCode AND s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ")")
+    Optional<Session> findByJoinCode(@Param("joinCode") String joinCode);
+
+    @Query("SELECT s.id FROM Session s WHERE s.joinCode = :joinCode AND s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ")")
+    Optional<Long> findIdByJoinCode(@Param("joinCode") String joinCode);
+
+    /**
+     * Join codes currently held by live sessions (used to seed the join code pool)
+     */
+    @Query("SELECT s.joinCode FROM Session s WHERE s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ")")
+    List<String> findLiveJoinCodes();
+
+    /**
+     * Write back tracked activity for a live session; never moves the timestamp backwards
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Session s SET s.lastActivityAt = :at WHERE s.id = :id " +
+           "AND s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ") " +
+           "AND (s.lastActivityAt IS NULL OR s.lastActivityAt < :at)")
+    int updateLastActivity(@Param("id") Long id, @Param("at") Instant at);
+
+    /**
+     * Move a session from round 1 to round 2. Returns 0 if it is not in round 1 or has
+     * ended or expired meanwhile, so of concurrent callers only one performs the transition.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Session s SET s.round = 2, s.status = 'round2' WHERE s.id = :id AND s.round = 1 " +
+        "AND s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ")")
+    int startRound2(@Param("id") Long id);
+
+    /**
+     * Mark a round 2 session completed. Returns 0 if it is not in round 2 or is already
+     * completed, ended or expired.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Session s SET s.status = 'completed' WHERE s.id = :id AND s.round = 2 " +
+           "AND s.status <> 'completed' AND s.status NOT IN (" + Session.RELEASED_STATUSES_SQL + ")")
+    int markCompleted(@Param("id") Long id);
+
     /**
      * Find all active sessions (not ended or expired)
      */
@@ -35,4 +35,10 @@ public interface SessionVoteHistoryRepository extends JpaRepository<SessionVoteH
         @Param("voteType") VoteType voteType);
     
     List<SessionVoteHistory> findBySessionIdAndUserId(Long sessionId, String userId);
+    
+    /**
+     * Distinct (user, restaurant) pairs with a vote of the given type, across all sessions
+     */
+    @Query("SELECT DISTINCT h.userId, h.providerId FROM SessionVoteHistory h WHERE h.voteType = :voteType")
+    List<Object[]> findUserRestaurantPairs(@Param("voteType") VoteType voteType);
 }
\ No newline at end of file
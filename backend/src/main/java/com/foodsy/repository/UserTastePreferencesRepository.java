@@ -7,9 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
 public interface UserTastePreferencesRepository extends JpaRepository<UserTastePreferences, Long> {
@@ -25,6 +25,18 @@ public interface UserTastePreferencesRepository extends JpaRepository<UserTasteP
     @Query("SELECT u FROM UserTastePreferences u WHERE u.user.id = :userId")
     Optional<UserTastePreferences> findByUserId(@Param("userId") Long userId);
     
+    /**
+     * Find taste preferences for several users
+     */
+    @Query("SELECT u FROM UserTastePreferences u WHERE u.user.id IN :userIds")
+    List<UserTastePreferences> findByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    /**
+     * Compact form of every profile (user id, cuisine mask, price range, borough) for the similarity index
+     */
+    @Query("SELECT u.user.id, u.cuisineMask, u.priceRange, u.preferredBorough FROM UserTastePreferences u")
+    List<Object[]> findAllProfileSignatures();
+    
     /**
      * Check if user has completed taste profile onboarding
      */
@@ -33,14 +45,14 @@ public interface UserTastePreferencesRepository extends JpaRepository<UserTasteP
     /**
      * Find users with similar taste preferences (same borough and overlapping cuisines)
      */
-    @Query("SELECT u FROM UserTastePreferences u WHERE u.preferredBorough = :borough AND SIZE(u.preferredCuisines) > 0")
+    @Query("SELECT u FROM UserTastePreferences u WHERE u.preferredBorough = :borough AND u.cuisineMask <> 0")
     List<UserTastePreferences> findUsersInBorough(@Param("borough") String borough);
     
     /**
-     * Find users who prefer specific cuisines
+     * Find users who prefer any of the cuisines in a Cuisine bitmask
      */
-    @Query("SELECT u FROM UserTastePreferences u WHERE :cuisine MEMBER OF u.preferredCuisines")
-    List<UserTastePreferences> findUsersByCuisine(@Param("cuisine") String cuisine);
+    @Query("SELECT u FROM UserTastePreferences u WHERE bitand(u.cuisineMask, :mask) <> 0")
+    List<UserTastePreferences> findUsersByCuisineMask(@Param("mask") int mask);
     
     /**
      * Find users by price range preference
@@ -60,10 +72,10 @@ public interface UserTastePreferencesRepository extends JpaRepository<UserTasteP
     List<Object[]> countUsersByPriceRange();
     
     /**
-     * Find users who have vegan/vegetarian preferences
+     * Count users who prefer any of the cuisines in a Cuisine bitmask
      */
-    @Query("SELECT u FROM UserTastePreferences u WHERE 'Vegan' MEMBER OF u.preferredCuisines OR 'Vegetarian' MEMBER OF u.preferredCuisines")
-    List<UserTastePreferences> findVeganVegetarianUsers();
+    @Query("SELECT COUNT(u) FROM UserTastePreferences u WHERE bitand(u.cuisineMask, :mask) <> 0")
+    long countUsersByCuisineMask(@Param("mask") int mask);
     
     /**
      * Find users with multiple overlapping preferences (for recommendation engine)
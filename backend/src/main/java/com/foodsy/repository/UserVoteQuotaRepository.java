@@ -21,4 +21,25 @@ public interface UserVoteQuotaRepository extends JpaRepository<UserVoteQuota, Lo
     
     @Query("SELECT q FROM UserVoteQuota q WHERE q.sessionId = :sessionId AND q.round = :round AND q.votesUsed < q.totalAllowed")
     List<UserVoteQuota> findIncompleteVotersInRound(@Param("sessionId") Long sessionId, @Param("round") Integer round);
+
+    /**
+     * Quota totals over a session's participants for one round. Participants without a
+     * quota row yet count as having used none of defaultAllowed votes.
+     */
+    @Query("SELECT COUNT(p) AS participants, " +
+           "SUM(CASE WHEN COALESCE(q.votesUsed, 0) >= COALESCE(q.totalAllowed, :defaultAllowed) THEN 1 ELSE 0 END) AS finished, " +
+           "SUM(COALESCE(q.votesUsed, 0)) AS votesUsed, " +
+           "SUM(COALESCE(q.totalAllowed, :defaultAllowed)) AS votesAllowed " +
+           "FROM SessionParticipant p LEFT JOIN UserVoteQuota q " +
+           "ON q.sessionId = p.session.id AND q.userId = p.userId AND q.round = :round " +
+           "WHERE p.session.id = :sessionId")
+    VoteTally tallyRound(@Param("sessionId") Long sessionId, @Param("round") Integer round,
+                         @Param("defaultAllowed") Integer defaultAllowed);
+
+    interface VoteTally {
+        Long getParticipants();
+        Long getFinished();
+        Long getVotesUsed();
+        Long getVotesAllowed();
+    }
 }
\ No newline at end of file
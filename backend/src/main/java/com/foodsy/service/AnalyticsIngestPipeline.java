@@ -0,0 +1,249 @@
+package com.foodsy.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffers homepage analytics events in memory and writes them to homepage_analytics
+ * from a single background thread with multi-row JDBC inserts.
+ *
+ * Request threads only enqueue into a bounded lock-free buffer. The writer flushes
+ * every flush interval, or as soon as a full batch is waiting, and updates the
+ * rollup tables in the same transaction as the raw insert, then feeds the user
+ * sketches and the real-time activity window. When the buffer is
+ * nearly full, section views are sampled; once it is full, new events are dropped
+ * and counted rather than blocking the request.
+ */
+@Service
+public class AnalyticsIngestPipeline implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsIngestPipeline.class);
+
+    // Ids come from the entity's sequence; each row takes a whole pooled block, so the
+    // ids never collide with ones Hibernate hands out from the same sequence
+    private static final String INSERT_PREFIX = "INSERT INTO homepage_analytics " +
+        "(id, user_id, event_type, section, restaurant_place_id, session_id, additional_data, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(nextval('homepage_analytics_seq'), ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 7;
+
+    // Above this share of capacity only 1 in SECTION_VIEW_SAMPLE_RATE section views is kept
+    private static final double SAMPLING_THRESHOLD = 0.75;
+    private static final int SECTION_VIEW_SAMPLE_RATE = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsRollupService rollupService;
+    private final UniqueUserSketchService userSketches;
+    private final RealTimeActivityWindow activityWindow;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Queue<AnalyticsEvent> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AnalyticsIngestPipeline(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   AnalyticsRollupService rollupService,
+                                   UniqueUserSketchService userSketches,
+                                   RealTimeActivityWindow activityWindow,
+                                   @Value("${analytics.ingest.capacity:10000}") int capacity,
+                                   @Value("${analytics.ingest.batch-size:500}") int batchSize,
+                                   @Value("${analytics.ingest.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupService = rollupService;
+        this.userSketches = userSketches;
+        this.activityWindow = activityWindow;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    }
+
+    /**
+     * Enqueue an event for writing. Never blocks; returns false if the event was
+     * sampled out or dropped because the buffer is full.
+     */
+    public boolean submit(AnalyticsEvent event) {
+        int size = buffered.get();
+        if (size >= capacity * SAMPLING_THRESHOLD && "section_view".equals(event.eventType())
+                && ThreadLocalRandom.current().nextInt(SECTION_VIEW_SAMPLE_RATE) != 0) {
+            sampledOut.incrementAndGet();
+            return false;
+        }
+
+        if (buffered.incrementAndGet() > capacity) {
+            buffered.decrementAndGet();
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                logger.warn("Analytics buffer full, dropping events ({} dropped so far)", dropped.get());
+            }
+            return false;
+        }
+
+        buffer.offer(event);
+        accepted.incrementAndGet();
+        if (size + 1 >= batchSize) {
+            Thread current = writer;
+            if (current != null) {
+                LockSupport.unpark(current); // a full batch is waiting
+            }
+        }
+        return true;
+    }
+
+    public IngestStats getStats() {
+        return new IngestStats(buffered.get(), capacity, accepted.get(), sampledOut.get(),
+            dropped.get(), written.get(), failed.get());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("analytics-writer").daemon().start(this::runWriter);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10)); // let the writer drain what is buffered
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWriter() {
+        while (running || buffered.get() > 0) {
+            try {
+                while (buffered.get() > 0) {
+                    flushBatch();
+                }
+            } catch (Exception e) {
+                logger.error("Analytics writer error: {}", e.getMessage());
+            }
+            if (running) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        logger.info("Analytics writer stopped ({} events written)", written.get());
+    }
+
+    private void flushBatch() {
+        List<AnalyticsEvent> batch = new ArrayList<>(Math.min(batchSize, buffered.get()));
+        AnalyticsEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+        buffered.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            write(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            logger.warn("Batch insert of {} analytics events failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (AnalyticsEvent single : batch) {
+                try {
+                    write(List.of(single));
+                    written.incrementAndGet();
+                } catch (Exception rowError) {
+                    failed.incrementAndGet();
+                    logger.error("Dropping analytics event {}: {}", single.eventType(), rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void write(List<AnalyticsEvent> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(batch);
+            rollupService.apply(batch);
+        });
+        userSketches.apply(batch); // sketch merges are idempotent, so a retried row is harmless
+        activityWindow.record(batch); // after commit, so a failed batch is not counted twice
+    }
+
+    private void insert(List<AnalyticsEvent> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (AnalyticsEvent event : batch) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = event.userId();
+            args[i++] = event.eventType();
+            args[i++] = event.section();
+            args[i++] = event.restaurantPlaceId();
+            args[i++] = event.sessionId();
+            args[i++] = event.additionalData();
+            args[i++] = OffsetDateTime.ofInstant(event.createdAt(), ZoneOffset.UTC);
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * A homepage event as captured on the request thread. userId is null for anonymous events.
+     */
+    public record AnalyticsEvent(
+        Long userId,
+        String sessionId,
+        String eventType,
+        String section,
+        String restaurantPlaceId,
+        String additionalData,
+        Instant createdAt
+    ) {}
+
+    public record IngestStats(
+        int buffered,
+        int capacity,
+        long accepted,
+        long sampledOut,
+        long dropped,
+        long written,
+        long failed
+    ) {}
+}
@@ -0,0 +1,180 @@
+package com.foodsy.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the daily range partitions of homepage_analytics on PostgreSQL.
+ *
+ * Partitions are named homepage_analytics_pYYYYMMDD and cover one UTC day each;
+ * they are created a few days ahead so inserts never miss a partition. Retention
+ * drops whole partitions instead of deleting rows. Rows recorded before the table
+ * was partitioned live in homepage_analytics_legacy, which is trimmed by DELETE
+ * until all of it falls outside the retention period and it can be dropped too.
+ * Rows outside every daily partition land in homepage_analytics_default; a day's
+ * rows are moved out of it when that day's partition is created late, and the
+ * retention job trims it by DELETE since it is never dropped.
+ * When the table is not partitioned (H2 in tests) nothing here applies.
+ */
+@Service
+public class AnalyticsPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsPartitionService.class);
+
+    private static final String PARENT = "homepage_analytics";
+    private static final String LEGACY = "homepage_analytics_legacy";
+    private static final String DEFAULT = "homepage_analytics_default";
+    private static final String PREFIX = PARENT + "_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+
+    public AnalyticsPartitionService(JdbcTemplate jdbcTemplate,
+                                     @Value("${analytics.partitions.days-ahead:7}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+    }
+
+    /**
+     * Whether homepage_analytics is a partitioned table in this database
+     */
+    public boolean isPartitioned() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = ? AND relkind = 'p'", Integer.class, PARENT);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            return false; // not PostgreSQL
+        }
+    }
+
+    /**
+     * Create the partitions for today and the next few days if they are missing
+     */
+    @Scheduled(fixedDelayString = "${analytics.partitions.maintenance-interval-hours:6}", timeUnit = TimeUnit.HOURS)
+    public void createUpcomingPartitions() {
+        try {
+            if (!isPartitioned()) {
+                return;
+            }
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            boolean hasDefault = listPartitions().contains(DEFAULT);
+            for (int i = 0; i <= daysAhead; i++) {
+                createPartition(today.plusDays(i), hasDefault);
+            }
+        } catch (Exception e) {
+            logger.error("Error creating analytics partitions: {}", e.getMessage());
+        }
+    }
+
+    private void createPartition(LocalDate day, boolean hasDefault) {
+        String partition = partitionName(day);
+        String from = startOf(day);
+        String to = startOf(day.plusDays(1));
+        // Creating a partition fails while the default partition holds rows of its range
+        if (hasDefault && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NULL AND EXISTS (SELECT 1 FROM " + DEFAULT +
+                    " WHERE created_at >= CAST(? AS timestamptz) AND created_at < CAST(? AS timestamptz))",
+                Boolean.class, partition, from, to))) {
+            String range = String.format("created_at >= '%s' AND created_at < '%s'", from, to);
+            // One DO block, so the default partition is never left detached
+            jdbcTemplate.execute(String.format("""
+                DO $$
+                BEGIN
+                    ALTER TABLE %1$s DETACH PARTITION %2$s;
+                    CREATE TABLE %3$s PARTITION OF %1$s FOR VALUES FROM ('%4$s') TO ('%5$s');
+                    INSERT INTO %3$s SELECT * FROM %2$s WHERE %6$s;
+                    DELETE FROM %2$s WHERE %6$s;
+                    ALTER TABLE %1$s ATTACH PARTITION %2$s DEFAULT;
+                END $$
+                """, PARENT, DEFAULT, partition, from, to, range));
+            logger.info("Moved rows for {} out of the default analytics partition", day);
+            return;
+        }
+        jdbcTemplate.execute(String.format(
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+            partition, PARENT, from, to));
+    }
+
+    /**
+     * Drop every partition that lies entirely before the retention day and trim the
+     * legacy and default partitions. Returns the number of partitions dropped, or -1 when the
+     * table is not partitioned and the caller should delete rows instead.
+     */
+    public int dropPartitionsBefore(LocalDate retentionDay) {
+        if (!isPartitioned()) {
+            return -1;
+        }
+
+        int dropped = 0;
+        for (String partition : listPartitions()) {
+            if (partition.startsWith(PREFIX)) {
+                LocalDate day = parseDay(partition);
+                if (day != null && !day.plusDays(1).isAfter(retentionDay)) {
+                    jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                    dropped++;
+                }
+            } else if (partition.equals(LEGACY)) {
+                dropped += trimLegacy(retentionDay);
+            } else if (partition.equals(DEFAULT)) {
+                int deleted = jdbcTemplate.update(
+                    "DELETE FROM " + DEFAULT + " WHERE created_at < CAST(? AS timestamptz)", startOf(retentionDay));
+                if (deleted > 0) {
+                    logger.info("Deleted {} rows from the default analytics partition", deleted);
+                }
+            }
+        }
+        logger.info("Dropped {} analytics partitions before {}", dropped, retentionDay);
+        return dropped;
+    }
+
+    private int trimLegacy(LocalDate retentionDay) {
+        String cutoff = startOf(retentionDay);
+        Boolean hasRecentRows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + LEGACY + " WHERE created_at >= CAST(? AS timestamptz))",
+            Boolean.class, cutoff);
+        if (Boolean.TRUE.equals(hasRecentRows)) {
+            int deleted = jdbcTemplate.update(
+                "DELETE FROM " + LEGACY + " WHERE created_at < CAST(? AS timestamptz)", cutoff);
+            logger.info("Deleted {} rows from the legacy analytics partition", deleted);
+            return 0;
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + LEGACY);
+        return 1;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ? ORDER BY c.relname",
+            String.class, PARENT);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PREFIX + day.format(SUFFIX);
+    }
+
+    private static LocalDate parseDay(String partition) {
+        try {
+            return LocalDate.parse(partition.substring(PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String startOf(LocalDate day) {
+        return day + " 00:00:00+00";
+    }
+}
@@ -0,0 +1,185 @@
+package com.foodsy.service;
+
+import com.foodsy.service.AnalyticsIngestPipeline.AnalyticsEvent;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the analytics rollup tables (hourly/daily event counts and daily per-actor
+ * counts) up to date. Called by the ingest writer with each batch it inserts, in the
+ * same transaction, so rollups always match the raw events.
+ *
+ * Each batch is aggregated in memory first and applied with one multi-row upsert
+ * per table; keys are written in sorted order so concurrent writers lock rows in
+ * the same order. PostgreSQL upserts with ON CONFLICT; other databases (H2 in
+ * tests) get the equivalent MERGE.
+ */
+@Service
+public class AnalyticsRollupService {
+
+    private static final String NONE = ""; // sentinel for missing section / place id
+
+    private static final String HOURLY_UPSERT = "INSERT INTO analytics_hourly_rollup " +
+        "(bucket_start, event_type, section, place_id, event_count) VALUES %s " +
+        "ON CONFLICT (bucket_start, event_type, section, place_id) " +
+        "DO UPDATE SET event_count = analytics_hourly_rollup.event_count + EXCLUDED.event_count";
+
+    private static final String DAILY_UPSERT = "INSERT INTO analytics_daily_rollup " +
+        "(bucket_date, event_type, section, place_id, event_count) VALUES %s " +
+        "ON CONFLICT (bucket_date, event_type, section, place_id) " +
+        "DO UPDATE SET event_count = analytics_daily_rollup.event_count + EXCLUDED.event_count";
+
+    private static final String ACTOR_UPSERT = "INSERT INTO analytics_actor_daily " +
+        "(bucket_date, actor_key, section, user_id, session_id, event_count) VALUES %s " +
+        "ON CONFLICT (bucket_date, actor_key, section) " +
+        "DO UPDATE SET event_count = analytics_actor_daily.event_count + EXCLUDED.event_count";
+
+    private static final String HOURLY_MERGE = "MERGE INTO analytics_hourly_rollup t USING (VALUES %s) " +
+        "AS s (bucket_start, event_type, section, place_id, event_count) " +
+        "ON t.bucket_start = s.bucket_start AND t.event_type = s.event_type AND t.section = s.section " +
+        "AND t.place_id = s.place_id " +
+        "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count " +
+        "WHEN NOT MATCHED THEN INSERT (bucket_start, event_type, section, place_id, event_count) " +
+        "VALUES (s.bucket_start, s.event_type, s.section, s.place_id, s.event_count)";
+
+    private static final String DAILY_MERGE = "MERGE INTO analytics_daily_rollup t USING (VALUES %s) " +
+        "AS s (bucket_date, event_type, section, place_id, event_count) " +
+        "ON t.bucket_date = s.bucket_date AND t.event_type = s.event_type AND t.section = s.section " +
+        "AND t.place_id = s.place_id " +
+        "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count " +
+        "WHEN NOT MATCHED THEN INSERT (bucket_date, event_type, section, place_id, event_count) " +
+        "VALUES (s.bucket_date, s.event_type, s.section, s.place_id, s.event_count)";
+
+    private static final String ACTOR_MERGE = "MERGE INTO analytics_actor_daily t USING (VALUES %s) " +
+        "AS s (bucket_date, actor_key, section, user_id, session_id, event_count) " +
+        "ON t.bucket_date = s.bucket_date AND t.actor_key = s.actor_key AND t.section = s.section " +
+        "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count " +
+        "WHEN NOT MATCHED THEN INSERT (bucket_date, actor_key, section, user_id, session_id, event_count) " +
+        "VALUES (s.bucket_date, s.actor_key, s.section, s.user_id, s.session_id, s.event_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public AnalyticsRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add a batch of raw events to the rollups
+     */
+    public void apply(List<AnalyticsEvent> events) {
+        Map<HourKey, long[]> hourly = new TreeMap<>(HourKey.ORDER);
+        Map<DayKey, long[]> daily = new TreeMap<>(DayKey.ORDER);
+        Map<ActorKey, long[]> actors = new TreeMap<>(ActorKey.ORDER);
+
+        for (AnalyticsEvent event : events) {
+            if (event.eventType() == null) {
+                continue;
+            }
+            String section = event.section() != null ? event.section() : NONE;
+            String placeId = event.restaurantPlaceId() != null ? event.restaurantPlaceId() : NONE;
+            Instant hour = event.createdAt().truncatedTo(ChronoUnit.HOURS);
+            LocalDate day = LocalDate.ofInstant(event.createdAt(), ZoneOffset.UTC);
+
+            hourly.computeIfAbsent(new HourKey(hour, event.eventType(), section, placeId), k -> new long[1])[0]++;
+            daily.computeIfAbsent(new DayKey(day, event.eventType(), section, placeId), k -> new long[1])[0]++;
+
+            ActorKey actor = ActorKey.of(day, section, event.userId(), event.sessionId());
+            if (actor != null) {
+                actors.computeIfAbsent(actor, k -> new long[1])[0]++;
+            }
+        }
+
+        boolean postgres = isPostgres();
+        upsert(postgres ? HOURLY_UPSERT : HOURLY_MERGE, 5, hourly, (key, count, args) -> {
+            args.add(OffsetDateTime.ofInstant(key.bucketStart(), ZoneOffset.UTC));
+            args.add(key.eventType());
+            args.add(key.section());
+            args.add(key.placeId());
+            args.add(count);
+        });
+        upsert(postgres ? DAILY_UPSERT : DAILY_MERGE, 5, daily, (key, count, args) -> {
+            args.add(Date.valueOf(key.bucketDate()));
+            args.add(key.eventType());
+            args.add(key.section());
+            args.add(key.placeId());
+            args.add(count);
+        });
+        upsert(postgres ? ACTOR_UPSERT : ACTOR_MERGE, 6, actors, (key, count, args) -> {
+            args.add(Date.valueOf(key.bucketDate()));
+            args.add(key.actorKey());
+            args.add(key.section());
+            args.add(key.userId());
+            args.add(key.userId() == null ? key.sessionId() : null);
+            args.add(count);
+        });
+    }
+
+    private <K> void upsert(String template, int columns, Map<K, long[]> rows, RowBinder<K> binder) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String row = "(" + "?, ".repeat(columns - 1) + "?)";
+        StringBuilder values = new StringBuilder(rows.size() * (row.length() + 2));
+        List<Object> args = new ArrayList<>(rows.size() * columns);
+        for (Map.Entry<K, long[]> entry : rows.entrySet()) {
+            if (!values.isEmpty()) {
+                values.append(", ");
+            }
+            values.append(row);
+            binder.bind(entry.getKey(), entry.getValue()[0], args);
+        }
+        jdbcTemplate.update(String.format(template, values), args.toArray());
+    }
+
+    private boolean isPostgres() {
+        Boolean postgres = this.postgres;
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+            this.postgres = postgres;
+        }
+        return postgres;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<K> {
+        void bind(K key, long count, List<Object> args);
+    }
+
+    private record HourKey(Instant bucketStart, String eventType, String section, String placeId) {
+        static final Comparator<HourKey> ORDER = Comparator.comparing(HourKey::bucketStart)
+            .thenComparing(HourKey::eventType).thenComparing(HourKey::section).thenComparing(HourKey::placeId);
+    }
+
+    private record DayKey(LocalDate bucketDate, String eventType, String section, String placeId) {
+        static final Comparator<DayKey> ORDER = Comparator.comparing(DayKey::bucketDate)
+            .thenComparing(DayKey::eventType).thenComparing(DayKey::section).thenComparing(DayKey::placeId);
+    }
+
+    private record ActorKey(LocalDate bucketDate, String actorKey, String section, Long userId, String sessionId) {
+        static final Comparator<ActorKey> ORDER = Comparator.comparing(ActorKey::bucketDate)
+            .thenComparing(ActorKey::actorKey).thenComparing(ActorKey::section);
+
+        static ActorKey of(LocalDate day, String section, Long userId, String sessionId) {
+            if (userId != null) {
+                return new ActorKey(day, "u:" + userId, section, userId, null);
+            }
+            return sessionId != null ? new ActorKey(day, "s:" + sessionId, section, null, sessionId) : null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.RestaurantClickSignal;
+import com.foodsy.repository.RestaurantClickSignalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-decayed card click counters per restaurant.
+ *
+ * Every click adds one to an exponentially decaying counter (configurable half-life),
+ * so the value approximates recent click volume without ever scanning
+ * homepage_analytics. Counters live in memory and are checkpointed to
+ * restaurant_click_signal periodically and reloaded on startup.
+ */
+@Service
+public class ClickTrendTracker implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickTrendTracker.class);
+
+    private static final double PRUNE_BELOW = 0.01;
+
+    private final RestaurantClickSignalRepository signalRepository;
+    private final double halfLifeMillis;
+
+    private final Map<String, Decayed> counters = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public ClickTrendTracker(RestaurantClickSignalRepository signalRepository,
+                             @Value("${trending.clicks.half-life-hours:24}") double halfLifeHours) {
+        this.signalRepository = signalRepository;
+        this.halfLifeMillis = halfLifeHours * 60 * 60 * 1000;
+    }
+
+    /**
+     * Record a click and return the decayed count including it
+     */
+    public double record(String placeId) {
+        long now = System.currentTimeMillis();
+        Decayed updated = counters.merge(placeId, new Decayed(1.0, now),
+            (current, click) -> new Decayed(current.valueAt(now, halfLifeMillis) + 1.0, now));
+        dirty.add(placeId);
+        return updated.value();
+    }
+
+    /**
+     * Decayed click count for a restaurant right now
+     */
+    public double current(String placeId) {
+        Decayed counter = placeId != null ? counters.get(placeId) : null;
+        return counter != null ? counter.valueAt(System.currentTimeMillis(), halfLifeMillis) : 0.0;
+    }
+
+    /**
+     * Reload checkpointed counters on startup
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<RestaurantClickSignal> signals = signalRepository.findAll();
+            for (RestaurantClickSignal signal : signals) {
+                Decayed loaded = new Decayed(signal.getDecayedClicks(), signal.getUpdatedAt().toEpochMilli());
+                counters.merge(signal.getPlaceId(), loaded, (current, stored) -> current);
+            }
+            logger.info("Loaded {} restaurant click signals", signals.size());
+        } catch (Exception e) {
+            logger.error("Failed to load restaurant click signals: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write changed counters to restaurant_click_signal and drop those that have decayed away
+     */
+    @Scheduled(fixedDelayString = "${trending.clicks.checkpoint-interval-minutes:5}", initialDelayString = "${trending.clicks.checkpoint-interval-minutes:5}", timeUnit = TimeUnit.MINUTES)
+    public void checkpoint() {
+        List<RestaurantClickSignal> changed = new ArrayList<>();
+        try {
+            long now = System.currentTimeMillis();
+            Instant checkpointAt = Instant.ofEpochMilli(now);
+            List<String> pruned = new ArrayList<>();
+
+            for (Map.Entry<String, Decayed> entry : counters.entrySet()) {
+                double value = entry.getValue().valueAt(now, halfLifeMillis);
+                if (value < PRUNE_BELOW) {
+                    if (counters.remove(entry.getKey(), entry.getValue())) {
+                        pruned.add(entry.getKey());
+                    }
+                } else if (dirty.remove(entry.getKey())) {
+                    changed.add(new RestaurantClickSignal(entry.getKey(), value, checkpointAt));
+                }
+            }
+
+            signalRepository.saveAll(changed);
+            signalRepository.deleteAllById(pruned);
+            logger.debug("Checkpointed {} click signals, pruned {}", changed.size(), pruned.size());
+        } catch (Exception e) {
+            changed.forEach(signal -> dirty.add(signal.getPlaceId())); // retry on the next checkpoint
+            logger.error("Failed to checkpoint restaurant click signals: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Counter value as of a timestamp; decays by half every half-life
+     */
+    private record Decayed(double value, long at) {
+        double valueAt(long now, double halfLifeMillis) {
+            return now <= at ? value : value * Math.pow(0.5, (now - at) / halfLifeMillis);
+        }
+    }
+}
@@ -3,15 +3,19 @@ package com.foodsy.service;
 import com.foodsy.domain.HomepageAnalytics;
 import com.foodsy.domain.User;
 import com.foodsy.dto.HomepageAnalyticsDto;
+import com.foodsy.repository.AnalyticsActorDailyRepository;
+import com.foodsy.repository.AnalyticsDailyRollupRepository;
+import com.foodsy.repository.AnalyticsHourlyRollupRepository;
 import com.foodsy.repository.HomepageAnalyticsRepository;
 import com.foodsy.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
@@ -29,27 +33,49 @@ public class HomepageAnalyticsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TrendingEngine trendingEngine;
+
+    @Autowired
+    private AnalyticsIngestPipeline ingestPipeline;
+
+    @Autowired
+    private AnalyticsDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private AnalyticsHourlyRollupRepository hourlyRollupRepository;
+
+    @Autowired
+    private AnalyticsActorDailyRepository actorDailyRepository;
+
+    @Autowired
+    private UniqueUserSketchService userSketches;
+
+    @Autowired
+    private RealTimeActivityWindow activityWindow;
+
+    @Autowired
+    private AnalyticsPartitionService partitionService;
+
     /**
-     * Track a homepage event for a logged-in user
+     * Track a homepage event for a logged-in user. The event is queued for the
+     * background writer; the user is referenced by id only.
      */
-    @Transactional
     public void trackEvent(Long userId, HomepageAnalyticsDto eventDto) {
         try {
-            User user = userRepository.findById(userId).orElse(null);
-            
-            HomepageAnalytics analytics = new HomepageAnalytics(
-                user,
+            ingestPipeline.submit(new AnalyticsIngestPipeline.AnalyticsEvent(
+                userId,
+                null,
                 eventDto.getEventType(),
                 eventDto.getSection(),
-                eventDto.getRestaurantPlaceId()
-            );
-            
-            if (eventDto.getAdditionalData() != null) {
-                analytics.setAdditionalData(eventDto.getAdditionalData());
+                eventDto.getRestaurantPlaceId(),
+                eventDto.getAdditionalData(),
+                Instant.now()
+            ));
+            if (eventDto.isCardClickEvent()) {
+                trendingEngine.recordClick(eventDto.getRestaurantPlaceId());
             }
             
-            analyticsRepository.save(analytics);
-            
             logger.debug("Tracked event: {} for user: {} in section: {}", 
                         eventDto.getEventType(), userId, eventDto.getSection());
                         
@@ -61,24 +87,21 @@ public class HomepageAnalyticsService {
     /**
      * Track a homepage event for an anonymous user (using session ID)
      */
-    @Transactional
     public void trackAnonymousEvent(String sessionId, HomepageAnalyticsDto eventDto) {
         try {
-            HomepageAnalytics analytics = new HomepageAnalytics(
+            ingestPipeline.submit(new AnalyticsIngestPipeline.AnalyticsEvent(
                 null, // No user for anonymous events
+                sessionId,
                 eventDto.getEventType(),
                 eventDto.getSection(),
-                eventDto.getRestaurantPlaceId()
-            );
-            
-            analytics.setSessionId(sessionId);
-            
-            if (eventDto.getAdditionalData() != null) {
-                analytics.setAdditionalData(eventDto.getAdditionalData());
+                eventDto.getRestaurantPlaceId(),
+                eventDto.getAdditionalData(),
+                Instant.now()
+            ));
+            if (eventDto.isCardClickEvent()) {
+                trendingEngine.recordClick(eventDto.getRestaurantPlaceId());
             }
             
-            analyticsRepository.save(analytics);
-            
             logger.debug("Tracked anonymous event: {} for session: {} in section: {}", 
                         eventDto.getEventType(), sessionId, eventDto.getSection());
                         
@@ -140,27 +163,33 @@ public class HomepageAnalyticsService {
     }
 
     /**
-     * Get analytics summary for the last N days
+     * Get analytics summary for the last N days, read from the rollup tables
+     * (day granularity, UTC)
      */
     public AnalyticsSummary getAnalyticsSummary(int days) {
         logger.debug("Getting analytics summary for last {} days", days);
         
-        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
+        LocalDate since = sinceDay(days);
         
         // Get basic counts
-        List<Object[]> eventTypeCounts = analyticsRepository.countByEventType();
-        List<Object[]> sectionCounts = analyticsRepository.countBySection();
-        List<Object[]> cardClicksBySection = analyticsRepository.countCardClicksBySection(since);
-        List<Object[]> mostClickedRestaurants = analyticsRepository.findMostClickedRestaurants(since);
-        List<Object[]> dailyActiveUsers = analyticsRepository.countDailyActiveUsers(since);
+        List<Object[]> eventTypeCounts = dailyRollupRepository.countByEventType();
+        List<Object[]> sectionCounts = dailyRollupRepository.countBySection();
+        List<Object[]> cardClicksBySection = dailyRollupRepository.countCardClicksBySection(since);
+        List<Object[]> mostClickedRestaurants = dailyRollupRepository.findMostClickedRestaurants(since);
+        List<Object[]> dailyActiveUsers = userSketches.countDailyActiveUsers(since);
         
-        // Calculate conversion metrics
-        Long sessionStarts = analyticsRepository.countSessionStarts(since);
-        Double conversionRate = analyticsRepository.calculateConversionRate(since);
+        // Calculate conversion metrics: taste_profile_complete to start_session
+        Map<String, Long> eventsSince = new HashMap<>();
+        for (Object[] row : dailyRollupRepository.countByEventTypeSince(since)) {
+            eventsSince.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        long sessionStarts = eventsSince.getOrDefault("start_session", 0L);
+        long profileCompletions = eventsSince.getOrDefault("taste_profile_complete", 0L);
+        double conversionRate = profileCompletions > 0 ? sessionStarts * 1.0 / profileCompletions : 0.0;
         
         // Get user engagement data
-        List<Object[]> userEngagement = analyticsRepository.findUserEngagementScores(since);
-        List<Object[]> anonymousActivity = analyticsRepository.findAnonymousSessionActivity(since);
+        List<Object[]> userEngagement = actorDailyRepository.findUserEngagementScores(since);
+        List<Object[]> anonymousActivity = actorDailyRepository.findAnonymousSessionActivity(since);
         
         return new AnalyticsSummary(
             eventTypeCounts,
@@ -168,8 +197,8 @@ public class HomepageAnalyticsService {
             cardClicksBySection,
             mostClickedRestaurants,
             dailyActiveUsers,
-            sessionStarts != null ? sessionStarts : 0L,
-            conversionRate != null ? conversionRate : 0.0,
+            sessionStarts,
+            conversionRate,
             userEngagement,
             anonymousActivity
         );
@@ -179,16 +208,14 @@ public class HomepageAnalyticsService {
      * Get popular sections ordered by user engagement
      */
     public List<Object[]> getPopularSections(int days) {
-        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        return analyticsRepository.findPopularSectionsByUniqueUsers(since);
+        return userSketches.findPopularSectionsByUniqueUsers(sinceDay(days));
     }
 
     /**
      * Get most clicked restaurants in a time period
      */
     public List<Object[]> getMostClickedRestaurants(int days, int limit) {
-        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        List<Object[]> results = analyticsRepository.findMostClickedRestaurants(since);
+        List<Object[]> results = dailyRollupRepository.findMostClickedRestaurants(sinceDay(days));
         return results.stream().limit(limit).toList();
     }
 
@@ -215,7 +242,7 @@ public class HomepageAnalyticsService {
      */
     public Map<Integer, Long> getHourlyActivityDistribution(int days) {
         Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        List<Object[]> hourlyData = analyticsRepository.findHourlyActivityDistribution(since);
+        List<Object[]> hourlyData = hourlyRollupRepository.findHourlyActivityDistribution(since);
         
         Map<Integer, Long> distribution = new HashMap<>();
         for (Object[] row : hourlyData) {
@@ -233,68 +260,49 @@ public class HomepageAnalyticsService {
     }
 
     /**
-     * Get conversion funnel metrics
+     * Get conversion funnel metrics from a single aggregate over the daily rollups
      */
     public ConversionFunnel getConversionFunnel(int days) {
-        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        
-        // Count events at each step of the funnel
-        long homepageViews = analyticsRepository.findByEventTypeAndDateRange("section_view", since, Instant.now()).size();
-        long tasteProfileStarts = analyticsRepository.findByEventTypeAndDateRange("section_view", since, Instant.now())
-            .stream()
-            .filter(event -> "onboarding".equals(event.getSection()))
-            .count();
-        long tasteProfileCompletions = analyticsRepository.findByEventTypeAndDateRange("taste_profile_complete", since, Instant.now()).size();
-        long sessionStarts = analyticsRepository.findByEventTypeAndDateRange("start_session", since, Instant.now()).size();
+        List<Object[]> rows = dailyRollupRepository.findConversionFunnel(sinceDay(days));
+        if (rows.isEmpty()) {
+            return new ConversionFunnel(0, 0, 0, 0);
+        }
         
+        Object[] counts = rows.get(0);
         return new ConversionFunnel(
-            homepageViews,
-            tasteProfileStarts,
-            tasteProfileCompletions,
-            sessionStarts
+            ((Number) counts[0]).longValue(),
+            ((Number) counts[1]).longValue(),
+            ((Number) counts[2]).longValue(),
+            ((Number) counts[3]).longValue()
         );
     }
 
     /**
-     * Clean up old analytics data (beyond retention period)
+     * Clean up old analytics data (beyond retention period). Raw events are removed
+     * by dropping whole daily partitions where the table is partitioned.
      */
-    @Transactional
     public int cleanupOldAnalytics(int retentionDays) {
         logger.info("Cleaning up analytics data older than {} days", retentionDays);
         
         Instant retentionDate = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
-        int deletedCount = analyticsRepository.deleteOldAnalytics(retentionDate);
+        int droppedPartitions = partitionService.dropPartitionsBefore(sinceDay(retentionDays));
+        int deletedCount = droppedPartitions < 0 ? analyticsRepository.deleteOldAnalytics(retentionDate) : 0;
+        int deletedBuckets = hourlyRollupRepository.deleteOlderThan(retentionDate);
+        int deletedSketches = userSketches.cleanupOlderThan(retentionDate);
         
-        logger.info("Deleted {} old analytics records", deletedCount);
+        logger.info("Dropped {} analytics partitions, deleted {} old analytics records, {} hourly rollup buckets and {} user sketches",
+                   Math.max(droppedPartitions, 0), deletedCount, deletedBuckets, deletedSketches);
         return deletedCount;
     }
 
     /**
-     * Get real-time analytics for dashboard
+     * Get real-time analytics for dashboard, answered from the in-memory activity window
      */
     public RealTimeAnalytics getRealTimeAnalytics() {
-        Instant oneHourAgo = Instant.now().minus(1, ChronoUnit.HOURS);
-        Instant oneDayAgo = Instant.now().minus(1, ChronoUnit.DAYS);
-        
-        // Count events in the last hour
-        List<HomepageAnalytics> lastHourEvents = analyticsRepository.findByEventTypeAndDateRange(
-            null, oneHourAgo, Instant.now());
-        
-        // Count unique users in the last hour
-        long activeUsersLastHour = lastHourEvents.stream()
-            .filter(event -> event.getUser() != null)
-            .mapToLong(event -> event.getUser().getId())
-            .distinct()
-            .count();
-        
-        // Count events in the last day
-        List<HomepageAnalytics> lastDayEvents = analyticsRepository.findByEventTypeAndDateRange(
-            null, oneDayAgo, Instant.now());
-        
         return new RealTimeAnalytics(
-            lastHourEvents.size(),
-            activeUsersLastHour,
-            lastDayEvents.size(),
+            (int) activityWindow.eventsLastHour(),
+            userSketches.activeUsersLastHour(),
+            (int) activityWindow.eventsLastDay(),
             getMostRecentEvents(10)
         );
     }
@@ -303,16 +311,11 @@ public class HomepageAnalyticsService {
      * Get most recent events for real-time monitoring
      */
     public List<HomepageAnalyticsDto> getMostRecentEvents(int limit) {
-        Instant oneHourAgo = Instant.now().minus(1, ChronoUnit.HOURS);
-        
-        List<HomepageAnalytics> recentEvents = analyticsRepository.findByEventTypeAndDateRange(
-            null, oneHourAgo, Instant.now());
-        
-        return recentEvents.stream()
-            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-            .limit(limit)
-            .map(HomepageAnalyticsDto::fromEntity)
-            .toList();
+        return activityWindow.mostRecent(limit);
+    }
+
+    private static LocalDate sinceDay(int days) {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(days);
     }
 
     // Helper classes for analytics responses
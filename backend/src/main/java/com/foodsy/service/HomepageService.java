@@ -28,6 +28,9 @@ public class HomepageService {
     @Autowired
     private HomepageAnalyticsService analyticsService;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
     // Section sizes for consistent homepage layout
     private static final int YOUR_PICKS_SIZE = 6;
     private static final int NEIGHBORHOOD_HIGHLIGHTS_SIZE = 8;
@@ -59,7 +62,7 @@ public class HomepageService {
             HomepageResponseDto response = HomepageResponseDto.builder()
                 .authenticated(true, userName)
                 .tasteProfile(tasteProfile.orElse(null))
-                .yourPicks(getYourPicks(criteria))
+                .yourPicks(getYourPicks(userName, criteria))
                 .neighborhoodHighlights(getNeighborhoodHighlights(primaryBorough))
                 .trendingNow(getTrendingNow(primaryBorough))
                 .spotlight(getSpotlight(primaryBorough))
@@ -111,25 +114,41 @@ public class HomepageService {
     }
 
     /**
-     * Get personalized restaurant picks based on user preferences
+     * Get personalized restaurant picks: collaborative-filtering recommendations
+     * first, topped up from the user's taste preferences
      */
-    private List<RestaurantSummaryDto> getYourPicks(RestaurantSearchCriteria criteria) {
+    private List<RestaurantSummaryDto> getYourPicks(String userName, RestaurantSearchCriteria criteria) {
         logger.debug("Getting personalized picks for borough: {}, price level: {}", 
                     criteria.getBorough(), criteria.getPriceLevel());
 
         try {
+            // Ask for a few extra in case some recommended restaurants have expired from the cache
+            List<String> recommended = recommendationService.recommendFor(userName, YOUR_PICKS_SIZE * 2);
+            List<RestaurantSummaryDto> picks = new ArrayList<>(
+                restaurantCacheService.getRestaurantsByPlaceIds(recommended));
+            if (picks.size() >= YOUR_PICKS_SIZE) {
+                return picks.subList(0, YOUR_PICKS_SIZE);
+            }
+
             // Convert cuisines set to list if not null
             List<String> cuisinesList = criteria.getCuisines() != null 
                 ? new ArrayList<>(criteria.getCuisines()) 
                 : null;
 
-            return restaurantCacheService.getPersonalizedRestaurants(
+            List<RestaurantSummaryDto> byPreferences = restaurantCacheService.getPersonalizedRestaurants(
                 criteria.getBorough(),
                 criteria.getPriceLevel(),
                 cuisinesList,
                 criteria.getMinRating(),
                 YOUR_PICKS_SIZE
             );
+            for (RestaurantSummaryDto restaurant : byPreferences) {
+                if (picks.size() >= YOUR_PICKS_SIZE) break;
+                if (picks.stream().noneMatch(r -> r.getPlaceId().equals(restaurant.getPlaceId()))) {
+                    picks.add(restaurant);
+                }
+            }
+            return picks;
         } catch (Exception e) {
             logger.error("Error getting personalized picks: {}", e.getMessage());
             return List.of();
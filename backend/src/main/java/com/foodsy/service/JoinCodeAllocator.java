@@ -0,0 +1,124 @@
+package com.foodsy.service;
+
+import com.foodsy.example.session.JoinCodeGenerator;
+import com.foodsy.repository.SessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out join codes from a pre-validated in-memory pool.
+ *
+ * Candidate codes come from a keyed permutation of a running sequence, so the
+ * generator itself never repeats within a cycle of the code space. The pool is
+ * topped up in the background against a single query of live codes, which means
+ * creating a session never has to look a code up in the database.
+ */
+@Service
+public class JoinCodeAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinCodeAllocator.class);
+
+    private static final int POOL_TARGET = 256;
+    private static final int POOL_LOW_WATERMARK = 64;
+    private static final int POOL_CAPACITY = 1024; // upper bound once released codes come back
+
+    private final SessionRepository sessionRepository;
+
+    private final Queue<String> pool = new ConcurrentLinkedQueue<>();
+    private final Set<String> pooled = ConcurrentHashMap.newKeySet();
+
+    private final long permutationKey;
+    private final AtomicLong cursor;
+
+    public JoinCodeAllocator(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+        SecureRandom random = new SecureRandom();
+        this.permutationKey = random.nextLong();
+        this.cursor = new AtomicLong(random.nextInt(JoinCodeGenerator.CODE_SPACE));
+    }
+
+    /**
+     * Take a free join code from the pool, refilling synchronously only if the
+     * background top-up could not keep up.
+     */
+    public String allocate() {
+        String code = poll();
+        if (code == null) {
+            refill();
+            code = poll();
+        }
+        if (code == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No join codes available");
+        }
+        return code;
+    }
+
+    /**
+     * Return the join code of an ended or expired session to the pool
+     */
+    public void release(String code) {
+        if (code == null || pooled.size() >= POOL_CAPACITY) {
+            return; // the permutation will reach this code again on a later cycle
+        }
+        if (pooled.add(code)) {
+            pool.offer(code);
+        }
+    }
+
+    /**
+     * Background top-up so the request path only ever polls the pool
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void topUp() {
+        if (pooled.size() < POOL_LOW_WATERMARK) {
+            try {
+                refill();
+            } catch (Exception e) {
+                logger.error("Failed to refill join code pool: {}", e.getMessage());
+            }
+        }
+    }
+
+    public int available() {
+        return pooled.size();
+    }
+
+    private String poll() {
+        String code = pool.poll();
+        if (code != null) {
+            pooled.remove(code);
+        }
+        return code;
+    }
+
+    private synchronized void refill() {
+        int needed = POOL_TARGET - pooled.size();
+        if (needed <= 0) {
+            return;
+        }
+
+        Set<String> live = new HashSet<>(sessionRepository.findLiveJoinCodes());
+        int added = 0;
+        for (int attempts = 0; added < needed && attempts < JoinCodeGenerator.CODE_SPACE; attempts++) {
+            String candidate = JoinCodeGenerator.fromSequence(cursor.getAndIncrement(), permutationKey);
+            if (!live.contains(candidate) && pooled.add(candidate)) {
+                pool.offer(candidate);
+                added++;
+            }
+        }
+
+        logger.debug("Refilled join code pool with {} codes ({} live sessions)", added, live.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.foodsy.service;
+
+import com.foodsy.dto.HomepageAnalyticsDto;
+import com.foodsy.service.AnalyticsIngestPipeline.AnalyticsEvent;
+import com.foodsy.util.SlidingWindowCounter;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-memory view of recent homepage activity for the real-time dashboard.
+ *
+ * The ingest writer records every event it has persisted: sliding-window counters
+ * give the event counts for the last hour (one-second buckets) and the last day
+ * (one-minute buckets), and a bounded deque keeps the newest events. Figures cover
+ * the events ingested by this node since it started.
+ */
+@Service
+public class RealTimeActivityWindow {
+
+    private static final int RECENT_EVENTS = 100;
+
+    private final SlidingWindowCounter lastHour = new SlidingWindowCounter(1_000, 3_600);
+    private final SlidingWindowCounter lastDay = new SlidingWindowCounter(60_000, 1_440);
+
+    private final Deque<HomepageAnalyticsDto> recent = new ArrayDeque<>(RECENT_EVENTS);
+
+    /**
+     * Add an ingested batch to the window
+     */
+    public void record(List<AnalyticsEvent> events) {
+        for (AnalyticsEvent event : events) {
+            long at = event.createdAt().toEpochMilli();
+            lastHour.record(at);
+            lastDay.record(at);
+        }
+        synchronized (recent) {
+            for (AnalyticsEvent event : events) {
+                if (recent.size() == RECENT_EVENTS) {
+                    recent.removeLast();
+                }
+                recent.addFirst(toDto(event));
+            }
+        }
+    }
+
+    public long eventsLastHour() {
+        return lastHour.count(System.currentTimeMillis());
+    }
+
+    public long eventsLastDay() {
+        return lastDay.count(System.currentTimeMillis());
+    }
+
+    /**
+     * Newest events from the last hour, most recent first
+     */
+    public List<HomepageAnalyticsDto> mostRecent(int limit) {
+        Instant oneHourAgo = Instant.now().minusSeconds(3_600);
+        List<HomepageAnalyticsDto> events = new ArrayList<>(Math.min(limit, RECENT_EVENTS));
+        synchronized (recent) {
+            for (HomepageAnalyticsDto event : recent) {
+                if (events.size() >= limit) {
+                    break;
+                }
+                if (!event.getTimestamp().isBefore(oneHourAgo)) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    private static HomepageAnalyticsDto toDto(AnalyticsEvent event) {
+        HomepageAnalyticsDto dto = new HomepageAnalyticsDto();
+        dto.setEventType(event.eventType());
+        dto.setSection(event.section());
+        dto.setRestaurantPlaceId(event.restaurantPlaceId());
+        dto.setSessionId(event.sessionId());
+        dto.setAdditionalData(event.additionalData());
+        dto.setTimestamp(event.createdAt());
+        return dto;
+    }
+}
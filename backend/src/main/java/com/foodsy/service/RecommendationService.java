@@ -0,0 +1,202 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.VoteType;
+import com.foodsy.repository.HomepageAnalyticsRepository;
+import com.foodsy.repository.SessionVoteHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item-based collaborative filtering for the homepage "Your Picks" section.
+ *
+ * A periodic batch job builds a sparse user x restaurant matrix from session LIKE
+ * votes and recent homepage card clicks, computes cosine similarity between
+ * restaurants from their co-occurrence across users, and precomputes each user's
+ * top recommendations. Requests only look up that list, so homepage latency does
+ * not depend on the amount of history.
+ *
+ * Users are keyed by normalized username, which is how session votes identify them.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double CLICK_WEIGHT = 0.25;
+    private static final double MAX_CLICK_WEIGHT = 1.0;
+
+    private static final int MAX_ITEMS_PER_USER = 100; // bounds the pairs a heavy user contributes
+    private static final int NEIGHBORS_PER_ITEM = 50;
+    private static final int PICKS_PER_USER = 24;
+
+    private final SessionVoteHistoryRepository voteHistoryRepository;
+    private final HomepageAnalyticsRepository analyticsRepository;
+    private final int clickWindowDays;
+
+    private volatile Map<String, List<String>> picksByUser = Map.of();
+
+    public RecommendationService(SessionVoteHistoryRepository voteHistoryRepository,
+                                 HomepageAnalyticsRepository analyticsRepository,
+                                 @Value("${recommendations.click-window-days:90}") int clickWindowDays) {
+        this.voteHistoryRepository = voteHistoryRepository;
+        this.analyticsRepository = analyticsRepository;
+        this.clickWindowDays = clickWindowDays;
+    }
+
+    /**
+     * Precomputed place ids recommended for a user, best first; empty if there are none
+     */
+    public List<String> recommendFor(String username, int limit) {
+        if (username == null) {
+            return List.of();
+        }
+        List<String> picks = picksByUser.getOrDefault(normalize(username), List.of());
+        return picks.size() <= limit ? picks : picks.subList(0, limit);
+    }
+
+    /**
+     * Rebuild the item-item model and every user's recommendations
+     */
+    @Scheduled(fixedDelayString = "${recommendations.rebuild-interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            Interactions interactions = loadInteractions();
+            List<List<Neighbor>> neighbors = similarItems(interactions);
+            Map<String, List<String>> picks = recommend(interactions, neighbors);
+            picksByUser = picks;
+            logger.info("Rebuilt recommendations for {} users over {} restaurants in {}ms",
+                picks.size(), interactions.items.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error rebuilding recommendations: {}", e.getMessage());
+        }
+    }
+
+    private Interactions loadInteractions() {
+        Interactions interactions = new Interactions();
+        for (Object[] row : voteHistoryRepository.findUserRestaurantPairs(VoteType.LIKE)) {
+            interactions.add((String) row[0], (String) row[1], LIKE_WEIGHT);
+        }
+        Instant since = Instant.now().minus(clickWindowDays, ChronoUnit.DAYS);
+        for (Object[] row : analyticsRepository.countCardClicksByUser(since)) {
+            double weight = Math.min(CLICK_WEIGHT * ((Number) row[2]).longValue(), MAX_CLICK_WEIGHT);
+            interactions.add((String) row[0], (String) row[1], weight);
+        }
+        return interactions;
+    }
+
+    /**
+     * Cosine similarity between items over the users that interacted with both,
+     * keeping each item's strongest neighbors
+     */
+    private List<List<Neighbor>> similarItems(Interactions interactions) {
+        int itemCount = interactions.items.size();
+        double[] norms = new double[itemCount];
+        Map<Long, Double> coOccurrence = new HashMap<>();
+
+        for (Map<Integer, Double> row : interactions.byUser.values()) {
+            List<Map.Entry<Integer, Double>> entries = strongest(row, MAX_ITEMS_PER_USER);
+            for (int a = 0; a < entries.size(); a++) {
+                int i = entries.get(a).getKey();
+                double wi = entries.get(a).getValue();
+                norms[i] += wi * wi;
+                for (int b = a + 1; b < entries.size(); b++) {
+                    int j = entries.get(b).getKey();
+                    double product = wi * entries.get(b).getValue();
+                    coOccurrence.merge(pairKey(i, j), product, Double::sum);
+                }
+            }
+        }
+
+        List<List<Neighbor>> neighbors = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            neighbors.add(new ArrayList<>());
+        }
+        coOccurrence.forEach((key, dot) -> {
+            int i = (int) (key >>> 32);
+            int j = (int) (long) key;
+            double similarity = dot / Math.sqrt(norms[i] * norms[j]);
+            neighbors.get(i).add(new Neighbor(j, similarity));
+            neighbors.get(j).add(new Neighbor(i, similarity));
+        });
+        for (int i = 0; i < itemCount; i++) {
+            List<Neighbor> list = neighbors.get(i);
+            list.sort(Comparator.comparingDouble(Neighbor::similarity).reversed());
+            if (list.size() > NEIGHBORS_PER_ITEM) {
+                neighbors.set(i, new ArrayList<>(list.subList(0, NEIGHBORS_PER_ITEM)));
+            }
+        }
+        return neighbors;
+    }
+
+    private Map<String, List<String>> recommend(Interactions interactions, List<List<Neighbor>> neighbors) {
+        Map<String, List<String>> picks = new HashMap<>();
+        interactions.byUser.forEach((user, row) -> {
+            Map<Integer, Double> scores = new HashMap<>();
+            row.forEach((item, weight) -> {
+                for (Neighbor neighbor : neighbors.get(item)) {
+                    if (!row.containsKey(neighbor.item())) {
+                        scores.merge(neighbor.item(), weight * neighbor.similarity(), Double::sum);
+                    }
+                }
+            });
+            if (!scores.isEmpty()) {
+                picks.put(user, strongest(scores, PICKS_PER_USER).stream()
+                    .map(entry -> interactions.items.get(entry.getKey()))
+                    .toList());
+            }
+        });
+        return picks;
+    }
+
+    private static List<Map.Entry<Integer, Double>> strongest(Map<Integer, Double> weights, int limit) {
+        return weights.entrySet().stream()
+            .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    private static long pairKey(int i, int j) {
+        return i < j ? ((long) i << 32) | j : ((long) j << 32) | i;
+    }
+
+    private static String normalize(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sparse user x restaurant matrix with restaurants mapped to dense indexes
+     */
+    private static final class Interactions {
+        final Map<String, Map<Integer, Double>> byUser = new HashMap<>();
+        final List<String> items = new ArrayList<>();
+        final Map<String, Integer> itemIndex = new HashMap<>();
+
+        void add(String user, String placeId, double weight) {
+            if (user == null || placeId == null || placeId.isBlank()) {
+                return;
+            }
+            Integer item = itemIndex.computeIfAbsent(placeId, id -> {
+                items.add(id);
+                return items.size() - 1;
+            });
+            byUser.computeIfAbsent(normalize(user), u -> new HashMap<>()).merge(item, weight, Double::sum);
+        }
+    }
+
+    private record Neighbor(int item, double similarity) {}
+}
@@ -14,10 +14,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -55,6 +58,9 @@ public class RestaurantCacheService {
     @Autowired
     private GooglePlacesClient placesClient;
 
+    @Autowired
+    private TrendingEngine trendingEngine;
+
     /**
      * Get restaurants for a specific borough, using cache when possible
      */
@@ -67,7 +73,7 @@ public class RestaurantCacheService {
         if (!cached.isEmpty()) {
             logger.info("Found {} cached restaurants for borough: {}", cached.size(), borough);
             return cached.stream()
-                .map(RestaurantSummaryDto::fromEntity)
+                .map(trendingEngine::summarize)
                 .collect(Collectors.toList());
         }
         
@@ -75,6 +81,24 @@ public class RestaurantCacheService {
         return fetchAndCacheForBorough(borough, limit);
     }
 
+    /**
+     * Get cached restaurants by place id, in the given order; expired or unknown ids are skipped
+     */
+    public List<RestaurantSummaryDto> getRestaurantsByPlaceIds(List<String> placeIds) {
+        if (placeIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, RestaurantCache> byPlaceId = new HashMap<>();
+        for (RestaurantCache restaurant : cacheRepository.findLiveByPlaceIds(placeIds, Instant.now())) {
+            byPlaceId.put(restaurant.getPlaceId(), restaurant);
+        }
+        return placeIds.stream()
+            .map(byPlaceId::get)
+            .filter(Objects::nonNull)
+            .map(trendingEngine::summarize)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Get personalized restaurant recommendations based on criteria
      */
@@ -90,29 +114,29 @@ public class RestaurantCacheService {
         
         Instant now = Instant.now();
         
-        // Try cache first for each cuisine
+        // Try cache first: one page across all preferred cuisines, best rated first
         List<RestaurantCache> results = List.of();
         if (cuisines != null && !cuisines.isEmpty()) {
-            for (String cuisine : cuisines) {
-                List<RestaurantCache> cuisineResults = cacheRepository.findByCategoryAndBorough(
-                    cuisine, borough, now);
-                results = combineAndLimitResults(results, cuisineResults, limit);
-                
-                if (results.size() >= limit) break;
-            }
+            List<String> categories = cuisines.stream()
+                .map(RestaurantCache::normalizeCategory)
+                .distinct()
+                .toList();
+            results = cacheRepository.findByCategoriesInBorough(
+                borough, categories, minRating != null ? minRating : 0.0, now, PageRequest.of(0, limit));
         }
         
-        // If no cuisine-specific results, get general results for borough
-        if (results.isEmpty()) {
-            results = cacheRepository.findByMultipleCriteria(
+        // Top up with the best general results for the borough, cuisine matches first
+        if (results.size() < limit) {
+            List<RestaurantCache> general = cacheRepository.findByMultipleCriteria(
                 borough, priceLevel, null, minRating != null ? minRating : 3.5, 
                 now, PageRequest.of(0, limit));
+            results = mergeByPlaceId(results, general, limit);
         }
         
         if (!results.isEmpty()) {
             logger.info("Found {} personalized cached restaurants", results.size());
             return results.stream()
-                .map(RestaurantSummaryDto::fromEntity)
+                .map(trendingEngine::summarize)
                 .limit(limit)
                 .collect(Collectors.toList());
         }
@@ -133,7 +157,7 @@ public class RestaurantCacheService {
             borough, now, 4.0, limit);
         
         return spotlight.stream()
-            .map(RestaurantSummaryDto::fromEntity)
+            .map(trendingEngine::summarize)
             .collect(Collectors.toList());
     }
 
@@ -148,7 +172,7 @@ public class RestaurantCacheService {
             borough, now, PageRequest.of(0, limit));
         
         return withPhotos.stream()
-            .map(RestaurantSummaryDto::fromEntity)
+            .map(trendingEngine::summarize)
             .collect(Collectors.toList());
     }
 
@@ -162,7 +186,7 @@ public class RestaurantCacheService {
         Optional<RestaurantCache> cached = cacheRepository.findByPlaceId(placeId);
         if (cached.isPresent() && !cached.get().isExpired()) {
             logger.debug("Found cached restaurant: {}", placeId);
-            return Optional.of(RestaurantSummaryDto.fromEntity(cached.get()));
+            return Optional.of(trendingEngine.summarize(cached.get()));
         }
         
         // Fetch from API if within quota
@@ -174,11 +198,11 @@ public class RestaurantCacheService {
                 return Optional.empty();
             } catch (Exception e) {
                 logger.error("Error fetching place details for {}: {}", placeId, e.getMessage());
-                return cached.map(RestaurantSummaryDto::fromEntity);
+                return cached.map(trendingEngine::summarize);
             }
         }
         
-        return cached.map(RestaurantSummaryDto::fromEntity);
+        return cached.map(trendingEngine::summarize);
     }
 
     /**
@@ -209,6 +233,7 @@ public class RestaurantCacheService {
                 .peek(cache -> {
                     try {
                         cacheRepository.save(cache);
+                        trendingEngine.offer(cache);
                         logger.debug("Cached restaurant: {} in {}", cache.getName(), borough);
                     } catch (Exception e) {
                         logger.error("Error caching restaurant {}: {}", cache.getName(), e.getMessage());
@@ -220,7 +245,7 @@ public class RestaurantCacheService {
                        cached.size(), borough);
             
             return cached.stream()
-                .map(RestaurantSummaryDto::fromEntity)
+                .map(trendingEngine::summarize)
                 .collect(Collectors.toList());
                 
         } catch (Exception e) {
@@ -289,16 +314,16 @@ public class RestaurantCacheService {
     }
 
     // Helper methods
-    private List<RestaurantCache> combineAndLimitResults(
-        List<RestaurantCache> existing, 
-        List<RestaurantCache> newResults, 
-        int limit
-    ) {
-        return existing.stream()
-            .collect(Collectors.toList())
-            .stream()
-            .limit(limit)
-            .collect(Collectors.toList());
+    private List<RestaurantCache> mergeByPlaceId(List<RestaurantCache> first, List<RestaurantCache> second, int limit) {
+        Map<String, RestaurantCache> merged = new LinkedHashMap<>();
+        for (RestaurantCache restaurant : first) {
+            merged.putIfAbsent(restaurant.getPlaceId(), restaurant);
+        }
+        for (RestaurantCache restaurant : second) {
+            if (merged.size() >= limit) break;
+            merged.putIfAbsent(restaurant.getPlaceId(), restaurant);
+        }
+        return new ArrayList<>(merged.values());
     }
 
     private RestaurantCache convertToRestaurantCache(GooglePlacesSearchResponse.Place place, String borough) {
@@ -347,7 +372,11 @@ public class RestaurantCacheService {
         return cache;
     }
 
-    private String extractCategory(List<String> types) {
+    /**
+     * Cuisine category for a set of Places types; shared with SessionSeeder so a
+     * restaurant gets the same category whether it came from the cache or Places
+     */
+    static String extractCategory(List<String> types) {
         if (types == null || types.isEmpty()) {
             return "Restaurant";
         }
@@ -402,89 +431,21 @@ public class RestaurantCacheService {
      * Calculate trending score for a restaurant based on multiple factors
      */
     public double calculateTrendingScore(RestaurantCache restaurant) {
-        double score = 0.0;
-        
-        // Rating trend (40% weight)
-        if (restaurant.getRating() != null) {
-            score += restaurant.getRating() * 0.4;
-        }
-        
-        // Review velocity (30% weight) 
-        if (restaurant.getUserRatingCount() != null) {
-            // Normalize review count (more recent reviews = higher score)
-            double reviewVelocity = Math.min(restaurant.getUserRatingCount() / 100.0, 5.0);
-            score += reviewVelocity * 0.3;
-        }
-        
-        // Recency (20% weight)
-        if (restaurant.getLastFetchedAt() != null) {
-            long daysSinceUpdate = ChronoUnit.DAYS.between(restaurant.getLastFetchedAt(), Instant.now());
-            double recencyScore = Math.max(5.0 - (daysSinceUpdate / 7.0), 0.0);
-            score += recencyScore * 0.2;
-        }
-        
-        // Price level popularity (10% weight)
-        if (restaurant.getPriceLevel() != null) {
-            // Mid-range restaurants tend to be more popular
-            double priceScore = restaurant.getPriceLevel() == 2 ? 5.0 : 3.0;
-            score += priceScore * 0.1;
-        }
-        
-        return Math.round(score * 100.0) / 100.0; // Round to 2 decimal places
+        return TrendingEngine.score(restaurant, Instant.now());
     }
     
     /**
-     * Get trending restaurants with calculated scores
+     * Get trending restaurants, served from the in-memory per-borough top K
      */
     public List<RestaurantSummaryDto> getTrendingRestaurants(String borough, int limit) {
         logger.debug("Getting trending restaurants for borough: {} with limit: {}", borough, limit);
         
-        Instant now = Instant.now();
-        List<RestaurantCache> cached = cacheRepository.findByBoroughNotExpired(
-            borough, now, PageRequest.of(0, limit * 2) // Get more to allow for sorting
-        ).getContent();
+        List<RestaurantSummaryDto> trending = trendingEngine.top(borough, limit);
         
-        if (cached.isEmpty()) {
+        if (trending.isEmpty()) {
             logger.info("No cached restaurants found for trending in borough: {}", borough);
-            return List.of();
         }
-        
-        // Check if we have recent trending calculations (within 24 hours)
-        Instant dayAgo = now.minusSeconds(24 * 60 * 60);
-        boolean hasRecentCalculations = cached.stream()
-            .anyMatch(r -> r.getLastTrendingCalcAt() != null && r.getLastTrendingCalcAt().isAfter(dayAgo));
-        
-        List<RestaurantCache> trendingRestaurants;
-        
-        if (hasRecentCalculations) {
-            // Use optimized repository query for persisted trending data
-            logger.debug("Using persisted trending scores for borough: {}", borough);
-            trendingRestaurants = cacheRepository.findTrendingByBorough(
-                borough, now, PageRequest.of(0, limit)
-            );
-        } else {
-            // Calculate trending scores in real-time and optionally update
-            logger.debug("Calculating real-time trending scores for borough: {}", borough);
-            trendingRestaurants = cached.stream()
-                .peek(restaurant -> {
-                    // Calculate and log trending score for debugging
-                    double score = calculateTrendingScore(restaurant);
-                    logger.debug("Restaurant: {} - Trending Score: {}", restaurant.getName(), score);
-                })
-                .sorted((r1, r2) -> {
-                    double score1 = calculateTrendingScore(r1);
-                    double score2 = calculateTrendingScore(r2);
-                    return Double.compare(score2, score1); // Descending order
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
-        }
-        
-        logger.info("Found {} trending restaurants for borough: {}", trendingRestaurants.size(), borough);
-        
-        return trendingRestaurants.stream()
-            .map(RestaurantSummaryDto::fromEntity)
-            .collect(Collectors.toList());
+        return trending;
     }
     
     /**
@@ -495,7 +456,8 @@ public class RestaurantCacheService {
     }
     
     /**
-     * Update trending scores for all restaurants in a borough
+     * Update trending scores for all restaurants in a borough. Each restaurant is
+     * scored once; the in-memory rankings are rebuilt from the same pass.
      */
     @Transactional
     public void updateTrendingScores(String borough) {
@@ -503,9 +465,8 @@ public class RestaurantCacheService {
         
         try {
             Instant now = Instant.now();
-            List<RestaurantCache> restaurants = cacheRepository.findByBoroughNotExpired(
-                borough, now, PageRequest.of(0, 1000) // Process in batches
-            ).getContent();
+            TrendingEngine.ScoredRestaurants scored = trendingEngine.rebuild(borough);
+            List<RestaurantCache> restaurants = scored.restaurants();
             
             if (restaurants.isEmpty()) {
                 logger.warn("No restaurants found to update trending scores for borough: {}", borough);
@@ -514,22 +475,13 @@ public class RestaurantCacheService {
             
             logger.info("Found {} restaurants to update in borough: {}", restaurants.size(), borough);
             
-            // Calculate scores and update ranks
-            restaurants.sort((r1, r2) -> {
-                double score1 = calculateTrendingScore(r1);
-                double score2 = calculateTrendingScore(r2);
-                return Double.compare(score2, score1); // Descending order
-            });
-            
             // Update trending scores and ranks
-            for (int i = 0; i < restaurants.size(); i++) {
-                RestaurantCache restaurant = restaurants.get(i);
-                double score = calculateTrendingScore(restaurant);
-                restaurant.setTrendingScore(score);
-                restaurant.setTrendingRank(i + 1);
+            int[] ranking = scored.ranking();
+            for (int rank = 0; rank < ranking.length; rank++) {
+                RestaurantCache restaurant = restaurants.get(ranking[rank]);
+                restaurant.setTrendingScore(scored.scores()[ranking[rank]]);
+                restaurant.setTrendingRank(rank + 1);
                 restaurant.setLastTrendingCalcAt(now);
-                logger.debug("Restaurant: {} - Score: {} - Rank: {}", 
-                            restaurant.getName(), score, i + 1);
             }
             
             // Save updated restaurants
@@ -0,0 +1,152 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.UserVoteQuota;
+import com.foodsy.repository.SessionParticipantRepository;
+import com.foodsy.repository.UserVoteQuotaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks, per live session, which participants have used up their likes in the
+ * current round, so the vote path can tell when the last one is in without querying.
+ *
+ * A session's progress is loaded from its participants and quotas the first time a
+ * participant finishes in a round, then kept up to date by votes and joins. Rounds
+ * that have been completed are recorded as closed, which stops their timers; a session
+ * that ends or expires has all of its rounds closed. Entries
+ * are dropped once they are older than the maximum session duration, and as soon as
+ * their session moves to another node.
+ */
+@Service
+public class RoundProgressTracker {
+
+    private final SessionParticipantRepository participantRepository;
+    private final UserVoteQuotaRepository quotaRepository;
+
+    private final Duration retention;
+
+    private final Map<Long, RoundProgress> progress = new ConcurrentHashMap<>();
+    private final Map<Long, ClosedRound> closedRounds = new ConcurrentHashMap<>();
+
+    public RoundProgressTracker(SessionParticipantRepository participantRepository,
+                                UserVoteQuotaRepository quotaRepository,
+                                @Value("${session.timeout.max-duration-hours:1}") int maxDurationHours) {
+        this.participantRepository = participantRepository;
+        this.quotaRepository = quotaRepository;
+        this.retention = Duration.ofHours(maxDurationHours);
+    }
+
+    /**
+     * Record that a participant has no likes left in a round. Returns true exactly once
+     * per round: for the call that leaves no participant with likes outstanding.
+     */
+    public boolean recordFinished(Long sessionId, int round, String userId) {
+        if (isClosed(sessionId, round)) {
+            return false;
+        }
+        RoundProgress current = progressFor(sessionId, round);
+        if (current == null) {
+            return false; // a late vote for a round that is already over
+        }
+        synchronized (current) {
+            current.participants.add(userId);
+            current.finished.add(userId);
+            if (current.completionClaimed || !current.finished.containsAll(current.participants)) {
+                return false;
+            }
+            current.completionClaimed = true;
+            return true;
+        }
+    }
+
+    public void participantJoined(Long sessionId, String userId) {
+        RoundProgress current = progress.get(sessionId);
+        if (current != null) {
+            synchronized (current) {
+                current.participants.add(userId);
+            }
+        }
+    }
+
+    /**
+     * Mark a round as completed
+     */
+    public void close(Long sessionId, int round) {
+        closedRounds.merge(sessionId, new ClosedRound(round, Instant.now()),
+            (old, fresh) -> old.round() >= fresh.round() ? old : fresh);
+    }
+
+    /**
+     * Close every round of a session that ended or expired and drop its progress
+     */
+    public void closeSession(Long sessionId) {
+        close(sessionId, Integer.MAX_VALUE);
+        progress.remove(sessionId);
+    }
+
+    public boolean isClosed(Long sessionId, int round) {
+        ClosedRound closed = closedRounds.get(sessionId);
+        return closed != null && closed.round() >= round;
+    }
+
+    @Scheduled(fixedDelay = 15, timeUnit = TimeUnit.MINUTES)
+    public void evictStale() {
+        Instant cutoff = Instant.now().minus(retention);
+        progress.values().removeIf(p -> p.loadedAt.isBefore(cutoff));
+        closedRounds.values().removeIf(c -> c.closedAt().isBefore(cutoff));
+    }
+
+    // The new owner loads the session's progress from the database; keeping ours would
+    // leave it stale should the session ever move back
+    @EventListener
+    public void ringChanged(SessionOwnership.RingChanged change) {
+        progress.keySet().removeIf(sessionId -> !change.isLocal(sessionId));
+        closedRounds.keySet().removeIf(sessionId -> !change.isLocal(sessionId));
+    }
+
+    private RoundProgress progressFor(Long sessionId, int round) {
+        RoundProgress current = progress.get(sessionId);
+        if (current != null && current.round >= round) {
+            return current.round == round ? current : null;
+        }
+        RoundProgress loaded = load(sessionId, round);
+        // Concurrent loaders for the same round keep the first; a later round replaces an earlier one
+        RoundProgress kept = progress.merge(sessionId, loaded, (old, fresh) -> old.round >= fresh.round ? old : fresh);
+        return kept.round == round ? kept : null;
+    }
+
+    private RoundProgress load(Long sessionId, int round) {
+        RoundProgress loaded = new RoundProgress(round);
+        participantRepository.findBySessionId(sessionId).forEach(p -> loaded.participants.add(p.getUserId()));
+        for (UserVoteQuota quota : quotaRepository.findBySessionIdAndRound(sessionId, round)) {
+            if (!quota.canVote()) {
+                loaded.finished.add(quota.getUserId());
+            }
+        }
+        return loaded;
+    }
+
+    private record ClosedRound(int round, Instant closedAt) {}
+
+    private static final class RoundProgress {
+        final int round;
+        final Instant loadedAt = Instant.now();
+        final Set<String> participants = new HashSet<>();
+        final Set<String> finished = new HashSet<>();
+        boolean completionClaimed;
+
+        RoundProgress(int round) {
+            this.round = round;
+        }
+    }
+}
@@ -2,37 +2,55 @@ package com.foodsy.service;
 
 import com.foodsy.domain.Session;
 import com.foodsy.domain.SessionRestaurant;
+import com.foodsy.domain.UserVoteQuota;
+import com.foodsy.dto.SessionResultsDto;
 import com.foodsy.repository.SessionRepository;
 import com.foodsy.repository.SessionRestaurantRepository;
 import com.foodsy.repository.SessionParticipantRepository;
 import com.foodsy.repository.UserVoteQuotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.foodsy.util.TransactionHooks.afterCommit;
+
 @Service
 @Transactional
 public class RoundService {
+    private static final Logger logger = LoggerFactory.getLogger(RoundService.class);
     
     private final SessionRepository sessionRepository;
     private final SessionRestaurantRepository sessionRestaurantRepository;
     private final SessionParticipantRepository sessionParticipantRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final UserVoteQuotaRepository userVoteQuotaRepository;
+    private final SessionResultsService sessionResultsService;
+    private final VotingStatusService votingStatusService;
+    private final RoundProgressTracker roundProgress;
     
     public RoundService(SessionRepository sessionRepository,
                        SessionRestaurantRepository sessionRestaurantRepository,
                        SessionParticipantRepository sessionParticipantRepository,
                        SimpMessagingTemplate messagingTemplate,
-                       UserVoteQuotaRepository userVoteQuotaRepository) {
+                       UserVoteQuotaRepository userVoteQuotaRepository,
+                       SessionResultsService sessionResultsService,
+                       VotingStatusService votingStatusService,
+                       RoundProgressTracker roundProgress) {
         this.sessionRepository = sessionRepository;
         this.sessionRestaurantRepository = sessionRestaurantRepository;
         this.sessionParticipantRepository = sessionParticipantRepository;
         this.messagingTemplate = messagingTemplate;
         this.userVoteQuotaRepository = userVoteQuotaRepository;
+        this.sessionResultsService = sessionResultsService;
+        this.votingStatusService = votingStatusService;
+        this.roundProgress = roundProgress;
     }
     
     /**
@@ -40,11 +58,14 @@ public class RoundService {
      * K = min(5, group_size + 2)
      */
     public void transitionToRound2(Long sessionId) {
-        Session session = sessionRepository.findById(sessionId)
-            .orElseThrow(() -> new RuntimeException("Session not found"));
-            
-        if (session.getRound() != 1) {
-            throw new RuntimeException("Can only transition to round 2 from round 1");
+        // Claim the transition first: the host, the round timer and the last vote may all
+        // ask for it, and only the caller that moves the session out of round 1 proceeds
+        if (sessionRepository.startRound2(sessionId) == 0) {
+            if (!sessionRepository.existsById(sessionId)) {
+                throw new RuntimeException("Session not found");
+            }
+            logger.debug("Session {} is not in round 1, skipping transition", sessionId);
+            return;
         }
         
         // Aggregate round 1 votes per provider and sort with tiebreakers
@@ -78,6 +99,7 @@ public class RoundService {
             .toList();
         
         // Persist only top 2 for round 2 with likeCount=0
+        List<SessionRestaurant> round2Restaurants = new ArrayList<>(sorted.size());
         for (SessionRestaurant restaurant : sorted) {
             SessionRestaurant round2Restaurant = new SessionRestaurant();
             round2Restaurant.setSessionId(sessionId);
@@ -95,113 +117,69 @@ public class RoundService {
             round2Restaurant.setWebsiteUri(restaurant.getWebsiteUri());
             round2Restaurant.setRound(2);
             round2Restaurant.setLikeCount(0); // Reset vote count for round 2
-            
-            sessionRestaurantRepository.save(round2Restaurant);
+            round2Restaurants.add(round2Restaurant);
         }
-        
-        // Update session to round 2
-        session.setRound(2);
-        session.setStatus("round2");
-        sessionRepository.save(session);
+        sessionRestaurantRepository.saveAll(round2Restaurants);
 
-        // Reset round 2 user vote quotas to 1 and votesUsed=0
-        var participants = sessionParticipantRepository.findBySessionId(sessionId);
-        participants.forEach(p -> {
-            var quota = userVoteQuotaRepository
-                .findBySessionIdAndUserIdAndRound(sessionId, p.getUserId(), 2)
-                .orElse(new com.foodsy.domain.UserVoteQuota(sessionId, p.getUserId(), 2, 1));
+        // Reset round 2 user vote quotas to 1 and votesUsed=0: existing quotas are loaded
+        // in one query, and new and changed rows are written in one batch
+        Map<String, UserVoteQuota> quotasByUser = new HashMap<>();
+        for (UserVoteQuota quota : userVoteQuotaRepository.findBySessionIdAndRound(sessionId, 2)) {
+            quotasByUser.put(quota.getUserId(), quota);
+        }
+        List<UserVoteQuota> quotas = new ArrayList<>();
+        for (var participant : sessionParticipantRepository.findBySessionId(sessionId)) {
+            UserVoteQuota quota = quotasByUser.computeIfAbsent(participant.getUserId(),
+                userId -> new UserVoteQuota(sessionId, userId, 2, 1));
             quota.setTotalAllowed(1);
             quota.setVotesUsed(0);
-            userVoteQuotaRepository.save(quota);
-        });
+            quotas.add(quota);
+        }
+        userVoteQuotaRepository.saveAll(quotas);
         
-        // Broadcast round transition event
-        messagingTemplate.convertAndSend(
-            "/topic/session/" + sessionId,
-            Map.of(
-                "type", "roundTransition",
-                "payload", Map.of(
-                    "sessionId", sessionId,
-                    "newRound", 2
-                )
+        // Broadcast round transition event, then the fresh round-2 voting status
+        broadcastAfterCommit(sessionId, Map.of(
+            "type", "roundTransition",
+            "payload", Map.of(
+                "sessionId", sessionId,
+                "newRound", 2
             )
-        );
+        ));
+        afterCommit(() -> {
+            roundProgress.close(sessionId, 1);
+            votingStatusService.publish(sessionId);
+        });
     }
     
     /**
      * Complete the voting session and determine the winner
      */
     public void completeSession(Long sessionId) {
-        Session session = sessionRepository.findById(sessionId)
-            .orElseThrow(() -> new RuntimeException("Session not found"));
-            
-        if (session.getRound() != 2) {
-            throw new RuntimeException("Can only complete session from round 2");
+        // Claim completion; repeated or concurrent calls are no-ops
+        if (sessionRepository.markCompleted(sessionId) == 0) {
+            if (!sessionRepository.existsById(sessionId)) {
+                throw new RuntimeException("Session not found");
+            }
+            logger.debug("Session {} is not in an open round 2, skipping completion", sessionId);
+            return;
         }
         
-        // Get round 2 restaurants
-        List<SessionRestaurant> round2Results = sessionRestaurantRepository
-            .findBySessionIdAndRoundOrderByLikeCountDesc(sessionId, 2);
-        
-        if (round2Results.isEmpty()) {
+        // Round 1 and round 2 likes combined per finalist; cached for later result requests
+        SessionResultsDto results = sessionResultsService.finalizeResults(sessionId);
+        if (results.round() != 2 || results.winner() == null) {
             throw new RuntimeException("No restaurants found for round 2");
         }
         
-        // Get round 1 restaurants for vote aggregation
-        List<SessionRestaurant> round1Results = sessionRestaurantRepository
-            .findBySessionIdAndRound(sessionId, 1);
-        
-        // Create aggregated results with cumulative vote counts
-        List<Map<String, Object>> aggregatedResults = round2Results.stream()
-            .<Map<String, Object>>map(r2 -> {
-                // Find corresponding round 1 restaurant by providerId
-                int round1Votes = round1Results.stream()
-                    .filter(r1 -> r1.getProviderId().equals(r2.getProviderId()))
-                    .findFirst()
-                    .map(SessionRestaurant::getLikeCount)
-                    .orElse(0);
-                
-                int totalVotes = r2.getLikeCount() + round1Votes;
-                
-                // Use HashMap to avoid Map.of() limitations
-                Map<String, Object> result = new java.util.HashMap<>();
-                result.put("id", r2.getId());
-                result.put("providerId", r2.getProviderId());
-                result.put("name", r2.getName());
-                result.put("address", r2.getAddress());
-                result.put("category", r2.getCategory());
-                result.put("rating", r2.getRating() != null ? r2.getRating() : 0.0);
-                result.put("userRatingCount", r2.getUserRatingCount() != null ? r2.getUserRatingCount() : 0);
-                result.put("currentOpeningHours", r2.getCurrentOpeningHours() != null ? r2.getCurrentOpeningHours() : "");
-                result.put("generativeSummary", r2.getGenerativeSummary() != null ? r2.getGenerativeSummary() : "");
-                result.put("reviewSummary", r2.getReviewSummary() != null ? r2.getReviewSummary() : "");
-                result.put("priceRange", r2.getPriceRange() != null ? r2.getPriceRange() : "");
-                result.put("voteCount", totalVotes);
-                result.put("round1Votes", round1Votes);
-                result.put("round2Votes", r2.getLikeCount());
-                return result;
-            })
-            .sorted((a, b) -> Integer.compare((Integer) b.get("voteCount"), (Integer) a.get("voteCount")))
-            .toList();
-        
-        Map<String, Object> winner = aggregatedResults.get(0);
-        
-        // Update session status
-        session.setStatus("completed");
-        sessionRepository.save(session);
-        
         // Broadcast session completion event with aggregated vote counts
-        messagingTemplate.convertAndSend(
-            "/topic/session/" + sessionId,
-            Map.of(
-                "type", "sessionComplete",
-                "payload", Map.of(
-                    "sessionId", sessionId,
-                    "winner", winner,
-                    "finalResults", aggregatedResults
-                )
+        broadcastAfterCommit(sessionId, Map.of(
+            "type", "sessionComplete",
+            "payload", Map.of(
+                "sessionId", sessionId,
+                "winner", results.winner(),
+                "finalResults", results.rankings()
             )
-        );
+        ));
+        afterCommit(() -> roundProgress.close(sessionId, 2));
     }
     
     /**
@@ -239,4 +217,13 @@ public class RoundService {
             "likesPerUser", session.getLikesPerUser()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Send a session event once the current transaction commits, so clients that
+     * react by reloading the session see the new round. Sends immediately when no
+     * transaction is active.
+     */
+    private void broadcastAfterCommit(Long sessionId, Map<String, Object> event) {
+        afterCommit(() -> messagingTemplate.convertAndSend("/topic/session/" + sessionId, event));
+    }
+}
@@ -0,0 +1,97 @@
+package com.foodsy.service;
+
+import com.foodsy.repository.SessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last-seen time of each session in memory and writes it back to
+ * session.last_activity_at in the background, at most once per flush interval.
+ *
+ * Reads and votes only touch the in-memory map, so a busy round no longer turns
+ * every click into a write to the same session row.
+ */
+@Service
+public class SessionActivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionActivityTracker.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final Map<Long, Instant> lastSeen = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> pending = new ConcurrentHashMap<>(); // not yet written back
+
+    public SessionActivityTracker(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    /**
+     * Record activity on a session
+     */
+    public void touch(Long sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        lastSeen.merge(sessionId, now, SessionActivityTracker::latest);
+        pending.merge(sessionId, now, SessionActivityTracker::latest);
+    }
+
+    /**
+     * Most recent activity for a session, preferring the in-memory value over the
+     * persisted one when it is newer
+     */
+    public Instant lastActivity(Long sessionId, Instant persisted) {
+        Instant seen = sessionId != null ? lastSeen.get(sessionId) : null;
+        if (seen == null) {
+            return persisted;
+        }
+        return persisted == null ? seen : latest(seen, persisted);
+    }
+
+    /**
+     * Write pending activity back to the database
+     */
+    @Scheduled(fixedDelayString = "${session.activity.flush-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int written = 0;
+        for (Long sessionId : pending.keySet()) {
+            Instant at = pending.remove(sessionId);
+            if (at == null) {
+                continue;
+            }
+            try {
+                written += sessionRepository.updateLastActivity(sessionId, at);
+            } catch (Exception e) {
+                pending.merge(sessionId, at, SessionActivityTracker::latest); // retry on the next flush
+                logger.error("Failed to flush activity for session {}: {}", sessionId, e.getMessage());
+            }
+        }
+        logger.debug("Flushed activity for {} sessions", written);
+    }
+
+    /**
+     * Stop tracking a session once it has ended or expired
+     */
+    public void forget(Long sessionId) {
+        if (sessionId != null) {
+            lastSeen.remove(sessionId);
+            pending.remove(sessionId);
+        }
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,148 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.RestaurantCache;
+import com.foodsy.repository.RestaurantCacheRepository;
+import com.foodsy.service.SessionSeeder.Candidate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-diversified restaurant pools per geo cell, so session creation in a covered
+ * area needs no database query or Places call.
+ *
+ * The map is divided into square cells of CELL_DEGREES. A background job groups
+ * the live rows of restaurant_cache by cell and, for every cell, diversifies all
+ * candidates within the seeding radius of its centre into one round-robin list.
+ * Because consecutive entries of that list come from different price/rating/type
+ * buckets, any window of it is diversified too: a session takes a window at a
+ * session-seeded offset and shuffles it, in O(poolSize). A pool expires with the
+ * first of its restaurants, or at the next scheduled rebuild.
+ */
+@Service
+public class SessionCandidatePoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCandidatePoolService.class);
+
+    static final double CELL_DEGREES = 0.02; // about 2.2 km north-south
+    // Cells on each side whose restaurants can lie within the seeding radius of a cell centre
+    // (4 km is about 0.048 degrees of longitude at NYC's latitude)
+    private static final int NEIGHBOR_CELLS = 3;
+
+    private final RestaurantCacheRepository cacheRepository;
+    private final Duration maxPoolAge;
+
+    private volatile Map<Long, Pool> pools = Map.of();
+
+    public SessionCandidatePoolService(RestaurantCacheRepository cacheRepository,
+                                       @Value("${session.pools.refresh-interval-minutes:15}") long refreshIntervalMinutes) {
+        this.cacheRepository = cacheRepository;
+        this.maxPoolAge = Duration.ofMinutes(refreshIntervalMinutes * 2); // survives one failed rebuild
+    }
+
+    /**
+     * A diversified selection for a new session, if the cell at the given point has
+     * a live pool large enough
+     */
+    public Optional<List<Candidate>> take(double latitude, double longitude, int poolSize, Long sessionId) {
+        Pool pool = pools.get(cellKey(latitude, longitude));
+        if (pool == null || pool.candidates().size() < poolSize || !pool.expiresAt().isAfter(Instant.now())) {
+            return Optional.empty();
+        }
+
+        List<Candidate> candidates = pool.candidates();
+        Random random = new Random(sessionId != null ? sessionId : System.nanoTime());
+        int offset = random.nextInt(candidates.size());
+        List<Candidate> picked = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            picked.add(candidates.get((offset + i) % candidates.size()));
+        }
+        Collections.shuffle(picked, random);
+        return Optional.of(picked);
+    }
+
+    /**
+     * Rebuild every cell's pool from the live restaurant cache
+     */
+    @Scheduled(fixedDelayString = "${session.pools.refresh-interval-minutes:15}", timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            Instant now = Instant.now();
+            Instant nextRebuild = now.plus(maxPoolAge);
+
+            Map<Long, List<RestaurantCache>> byCell = new HashMap<>();
+            for (RestaurantCache restaurant : cacheRepository.findLiveWithCoordinates(now)) {
+                byCell.computeIfAbsent(cellKey(restaurant.getLatitude(), restaurant.getLongitude()),
+                    k -> new ArrayList<>()).add(restaurant);
+            }
+
+            Map<Long, Pool> rebuilt = new HashMap<>();
+            for (Long cell : byCell.keySet()) {
+                Pool pool = buildPool(cell, byCell, nextRebuild);
+                if (pool != null) {
+                    rebuilt.put(cell, pool);
+                }
+            }
+            pools = rebuilt;
+            logger.info("Rebuilt candidate pools for {} cells in {}ms", rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error rebuilding session candidate pools: {}", e.getMessage());
+        }
+    }
+
+    private Pool buildPool(long cell, Map<Long, List<RestaurantCache>> byCell, Instant nextRebuild) {
+        int row = (int) (cell >> 32);
+        int column = (int) cell;
+        double centerLat = (row + 0.5) * CELL_DEGREES;
+        double centerLng = (column + 0.5) * CELL_DEGREES;
+
+        Map<String, Candidate> candidates = new HashMap<>();
+        Instant expiresAt = nextRebuild;
+        for (int dr = -NEIGHBOR_CELLS; dr <= NEIGHBOR_CELLS; dr++) {
+            for (int dc = -NEIGHBOR_CELLS; dc <= NEIGHBOR_CELLS; dc++) {
+                for (RestaurantCache restaurant : byCell.getOrDefault(pack(row + dr, column + dc), List.of())) {
+                    if (SessionSeeder.distanceMeters(centerLat, centerLng, restaurant.getLatitude(), restaurant.getLongitude())
+                            > SessionSeeder.RADIUS_METERS) {
+                        continue;
+                    }
+                    Candidate candidate = Candidate.fromCache(restaurant);
+                    if (candidate.isAcceptable() && candidates.putIfAbsent(candidate.providerId(), candidate) == null
+                            && restaurant.getExpiresAt().isBefore(expiresAt)) {
+                        expiresAt = restaurant.getExpiresAt();
+                    }
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<Candidate> ordered = new ArrayList<>(candidates.values());
+        ordered.sort(Comparator.comparing(Candidate::providerId)); // stable input for the diversifier
+        return new Pool(List.copyOf(SessionSeeder.diversify(ordered, ordered.size(), cell)), expiresAt);
+    }
+
+    static long cellKey(double latitude, double longitude) {
+        return pack((int) Math.floor(latitude / CELL_DEGREES), (int) Math.floor(longitude / CELL_DEGREES));
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private record Pool(List<Candidate> candidates, Instant expiresAt) {}
+}
@@ -5,13 +5,18 @@ import com.foodsy.repository.SessionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +30,11 @@ public class SessionCleanupService {
     
     private final SessionRepository sessionRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final JoinCodeAllocator joinCodeAllocator;
+    private final SessionActivityTracker activityTracker;
+    private final RoundProgressTracker roundProgress;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
     
     @Value("${session.timeout.inactive-minutes:30}")
     private int inactiveTimeoutMinutes;
@@ -33,34 +43,54 @@ public class SessionCleanupService {
     private int maxDurationHours;
     
     public SessionCleanupService(SessionRepository sessionRepository, 
-                               SimpMessagingTemplate messagingTemplate) {
+                               SimpMessagingTemplate messagingTemplate,
+                               JoinCodeAllocator joinCodeAllocator,
+                               SessionActivityTracker activityTracker,
+                               RoundProgressTracker roundProgress,
+                               JdbcTemplate jdbcTemplate) {
         this.sessionRepository = sessionRepository;
         this.messagingTemplate = messagingTemplate;
+        this.joinCodeAllocator = joinCodeAllocator;
+        this.activityTracker = activityTracker;
+        this.roundProgress = roundProgress;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     /**
-     * Scheduled task that runs every 30 minutes to clean up expired sessions
+     * Scheduled task that runs every 30 minutes to clean up expired sessions.
+     * Expiry is a single set-based UPDATE; participants are notified only after
+     * it has committed.
      */
     @Scheduled(fixedRateString = "${session.cleanup.interval-minutes:30}", timeUnit = TimeUnit.MINUTES)
-    @Transactional
     public void cleanupExpiredSessions() {
         logger.info("Starting scheduled session cleanup...");
         
         try {
-            // Find sessions that should be expired
-            List<Session> expiredSessions = findExpiredSessions();
+            // Persist in-memory activity first so recently active sessions survive
+            activityTracker.flush();
+            
+            Instant now = Instant.now();
+            Instant inactivityThreshold = now.minus(inactiveTimeoutMinutes, ChronoUnit.MINUTES);
+            Instant maxDurationThreshold = now.minus(maxDurationHours, ChronoUnit.HOURS);
             
-            if (expiredSessions.isEmpty()) {
+            // Sessions that are either inactive for too long or running for too long
+            List<ExpiredSession> expired = expireStaleSessions(inactivityThreshold, maxDurationThreshold);
+            
+            if (expired.isEmpty()) {
                 logger.info("No expired sessions found");
                 return;
             }
             
-            logger.info("Found {} expired sessions to clean up", expiredSessions.size());
+            logger.info("Expired {} sessions", expired.size());
             
-            // Mark sessions as expired and notify participants
-            for (Session session : expiredSessions) {
-                expireSession(session);
+            List<Long> sessionIds = new ArrayList<>(expired.size());
+            for (ExpiredSession session : expired) {
+                sessionIds.add(session.id());
+                joinCodeAllocator.release(session.joinCode());
+                activityTracker.forget(session.id());
+                roundProgress.closeSession(session.id()); // stops its round timer
             }
+            notifyExpired(sessionIds, "Session has expired due to inactivity");
             
             logger.info("Session cleanup completed successfully");
             
@@ -70,31 +100,55 @@ public class SessionCleanupService {
     }
     
     /**
-     * Find sessions that should be expired based on inactivity or max duration
+     * Expire every live session that has been idle too long or has outlived its max
+     * duration in one statement, returning exactly the rows that statement changed.
+     * Backed by the partial indexes on live sessions. PostgreSQL reads the changed rows
+     * back with RETURNING; H2 (tests) with a FINAL TABLE data change delta.
      */
-    private List<Session> findExpiredSessions() {
-        Instant inactivityThreshold = Instant.now().minus(inactiveTimeoutMinutes, ChronoUnit.MINUTES);
-        Instant maxDurationThreshold = Instant.now().minus(maxDurationHours, ChronoUnit.HOURS);
-        
-        // Find sessions that are either:
-        // 1. Inactive for too long (lastActivityAt < threshold)
-        // 2. Running for too long (createdAt < maxDurationThreshold)
-        // Get all active sessions and filter them manually
-        return sessionRepository.findActiveSessions().stream()
-            .filter(session -> {
-                // Check inactivity timeout
-                if (session.getLastActivityAt() != null && 
-                    session.getLastActivityAt().isBefore(inactivityThreshold)) {
-                    return true;
-                }
-                // Check max duration
-                if (session.getCreatedAt() != null && 
-                    session.getCreatedAt().isBefore(maxDurationThreshold)) {
-                    return true;
-                }
-                return false;
-            })
-            .toList();
+    private List<ExpiredSession> expireStaleSessions(Instant inactiveBefore, Instant createdBefore) {
+        String update = "UPDATE session SET status = 'expired' " +
+            "WHERE status NOT IN (" + Session.RELEASED_STATUSES_SQL + ") " +
+            "AND (last_activity_at < ? OR created_at < ?)";
+        String sql = isPostgres()
+            ? update + " RETURNING id, join_code"
+            : "SELECT id, join_code FROM FINAL TABLE (" + update + ")";
+        return jdbcTemplate.query(sql,
+            (rs, rowNum) -> new ExpiredSession(rs.getLong("id"), rs.getString("join_code")),
+            OffsetDateTime.ofInstant(inactiveBefore, ZoneOffset.UTC),
+            OffsetDateTime.ofInstant(createdBefore, ZoneOffset.UTC));
+    }
+
+    private boolean isPostgres() {
+        Boolean postgres = this.postgres;
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+            this.postgres = postgres;
+        }
+        return postgres;
+    }
+
+    private record ExpiredSession(Long id, String joinCode) {}
+    
+    /**
+     * Notify the participants of a batch of expired sessions
+     */
+    private void notifyExpired(List<Long> sessionIds, String reason) {
+        Instant expiredAt = Instant.now();
+        int failed = 0;
+        for (Long sessionId : sessionIds) {
+            try {
+                messagingTemplate.convertAndSend(
+                    "/topic/session/" + sessionId,
+                    new SessionEvent("session_expired", new SessionExpiredPayload(sessionId, reason, expiredAt))
+                );
+            } catch (Exception e) {
+                failed++;
+                logger.error("Failed to notify participants of session {} expiration", sessionId, e);
+            }
+        }
+        logger.info("Notified participants of {} expired sessions ({} failed)", sessionIds.size() - failed, failed);
     }
     
     /**
@@ -107,6 +161,9 @@ public class SessionCleanupService {
         // Update session status
         session.setStatus("expired");
         sessionRepository.save(session);
+        joinCodeAllocator.release(session.getJoinCode());
+        activityTracker.forget(session.getId());
+        roundProgress.closeSession(session.getId());
         
         // Notify all participants via WebSocket
         try {
@@ -134,6 +191,9 @@ public class SessionCleanupService {
             logger.info("Manually expiring session {} - reason: {}", sessionId, reason);
             session.setStatus("expired");
             sessionRepository.save(session);
+            joinCodeAllocator.release(session.getJoinCode());
+            activityTracker.forget(sessionId);
+            roundProgress.closeSession(sessionId);
             
             // Notify participants
             try {
@@ -172,10 +232,11 @@ public class SessionCleanupService {
         
         Instant now = Instant.now();
         
-        // Check inactivity timeout
-        if (session.getLastActivityAt() != null) {
+        // Check inactivity timeout, preferring tracked activity not yet written back
+        Instant lastActivity = activityTracker.lastActivity(session.getId(), session.getLastActivityAt());
+        if (lastActivity != null) {
             Instant inactivityThreshold = now.minus(inactiveTimeoutMinutes, ChronoUnit.MINUTES);
-            if (session.getLastActivityAt().isBefore(inactivityThreshold)) {
+            if (lastActivity.isBefore(inactivityThreshold)) {
                 logger.debug("Session {} should expire due to inactivity", session.getId());
                 return true;
             }
@@ -0,0 +1,113 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Session;
+import com.foodsy.domain.SessionParticipant;
+import com.foodsy.repository.SessionParticipantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Participant membership of live sessions, kept in memory so the vote and join
+ * paths can check it without a query.
+ *
+ * A session's members are loaded on first access and updated on every join made
+ * through this class. Joins insert the participant row and rely on the
+ * (session_id, user_id) unique constraint, so two concurrent joins of the same user
+ * end with a single row. Sessions not accessed for the maximum session duration, or
+ * moved to another node, are dropped and reloaded if they are used again.
+ */
+@Service
+public class SessionMembership {
+
+    private final SessionParticipantRepository participantRepository;
+    private final RoundProgressTracker roundProgress;
+
+    private final Duration retention;
+
+    private final Map<Long, Members> members = new ConcurrentHashMap<>();
+
+    public SessionMembership(SessionParticipantRepository participantRepository,
+                             RoundProgressTracker roundProgress,
+                             @Value("${session.timeout.max-duration-hours:1}") int maxDurationHours) {
+        this.participantRepository = participantRepository;
+        this.roundProgress = roundProgress;
+        this.retention = Duration.ofHours(maxDurationHours);
+    }
+
+    public boolean isMember(Long sessionId, String userId) {
+        return membersOf(sessionId).userIds.contains(userId);
+    }
+
+    /**
+     * Add a user to a session unless they are already in it. Returns true if this call
+     * added them.
+     */
+    public boolean join(Session session, String userId) {
+        Members current = membersOf(session.getId());
+        if (current.userIds.contains(userId)) {
+            return false;
+        }
+
+        SessionParticipant participant = new SessionParticipant();
+        participant.setSession(session);
+        participant.setUserId(userId);
+        participant.setJoinedAt(Instant.now());
+        boolean inserted;
+        try {
+            participantRepository.saveAndFlush(participant);
+            inserted = true;
+        } catch (DataIntegrityViolationException e) {
+            inserted = false; // joined concurrently, or through another instance
+        }
+
+        current.userIds.add(userId);
+        roundProgress.participantJoined(session.getId(), userId);
+        return inserted;
+    }
+
+    /**
+     * Start tracking a session that was just created with its creator as the only participant
+     */
+    public void created(Long sessionId, String creatorId) {
+        Members fresh = new Members();
+        fresh.userIds.add(creatorId);
+        members.put(sessionId, fresh);
+    }
+
+    @Scheduled(fixedDelay = 15, timeUnit = TimeUnit.MINUTES)
+    public void evictStale() {
+        Instant cutoff = Instant.now().minus(retention);
+        members.values().removeIf(m -> m.lastAccess.isBefore(cutoff));
+    }
+
+    // Joins made on the new owner never reach this copy
+    @EventListener
+    public void ringChanged(SessionOwnership.RingChanged change) {
+        members.keySet().removeIf(sessionId -> !change.isLocal(sessionId));
+    }
+
+    private Members membersOf(Long sessionId) {
+        Members current = members.computeIfAbsent(sessionId, id -> {
+            Members loaded = new Members();
+            loaded.userIds.addAll(participantRepository.findUserIdsBySessionId(id));
+            return loaded;
+        });
+        current.lastAccess = Instant.now();
+        return current;
+    }
+
+    private static final class Members {
+        final Set<String> userIds = ConcurrentHashMap.newKeySet();
+        volatile Instant lastAccess = Instant.now();
+    }
+}
@@ -0,0 +1,152 @@
+package com.foodsy.service;
+
+import com.foodsy.client.ClusterPeerClient;
+import com.foodsy.util.ConsistentHashRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every live session to one backend node, so its votes, commands, timers and
+ * in-memory state live in a single JVM.
+ *
+ * Nodes are listed in cluster.nodes by base URL, this one included as cluster.self-url.
+ * Sessions map to nodes on a consistent-hash ring over the nodes currently alive. Each
+ * node pings its peers; one that misses cluster.failure-threshold pings in a row leaves
+ * the ring and its sessions move to the survivors, and it rejoins once it answers again.
+ * Every change of the ring is published as a {@link RingChanged} event, so in-memory
+ * state of sessions that moved to another node can be dropped.
+ * With cluster.enabled off, every session is owned locally.
+ */
+@Service
+public class SessionOwnership {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionOwnership.class);
+
+    private final ClusterPeerClient peerClient;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final String self;
+    private final List<String> peers;
+    private final int virtualNodes;
+    private final int failureThreshold;
+
+    private final Map<String, Integer> missedPings = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+
+    public SessionOwnership(ClusterPeerClient peerClient,
+                            ApplicationEventPublisher events,
+                            @Value("${cluster.enabled:false}") boolean enabled,
+                            @Value("${cluster.self-url:}") String selfUrl,
+                            @Value("${cluster.nodes:}") String nodes,
+                            @Value("${cluster.virtual-nodes:100}") int virtualNodes,
+                            @Value("${cluster.failure-threshold:3}") int failureThreshold) {
+        this.peerClient = peerClient;
+        this.events = events;
+        this.enabled = enabled;
+        this.self = trimSlash(selfUrl);
+        this.peers = Arrays.stream(nodes.split(","))
+                .map(SessionOwnership::trimSlash)
+                .filter(node -> !node.isEmpty() && !node.equals(self))
+                .distinct()
+                .toList();
+        this.virtualNodes = virtualNodes;
+        this.failureThreshold = failureThreshold;
+        if (enabled && self.isEmpty()) {
+            throw new IllegalStateException("cluster.self-url is required when cluster.enabled is set");
+        }
+        // Without it every peer call is refused and each node ends up owning every session
+        if (enabled && !peerClient.hasSecret()) {
+            throw new IllegalStateException("cluster.secret is required when cluster.enabled is set");
+        }
+        // Peers count as alive until they miss their first pings
+        this.ring = new ConsistentHashRing(allNodes(), virtualNodes);
+    }
+
+    public boolean isLocal(Long sessionId) {
+        return !enabled || self.equals(ring.nodeFor(sessionId));
+    }
+
+    public String ownerOf(Long sessionId) {
+        return enabled ? ring.nodeFor(sessionId) : self;
+    }
+
+    /**
+     * Whether session work whose forwarding to its owner failed may run on this node
+     * instead: only if the owner has left the ring or refused the connection. After a
+     * timeout or an error response the owner may already have done the work.
+     */
+    public boolean canRunInsteadOf(String owner, Exception failure) {
+        return !ring.nodes().contains(owner) || ClusterPeerClient.isConnectionRefused(failure);
+    }
+
+    /**
+     * Other nodes currently on the ring
+     */
+    public Set<String> livePeers() {
+        Set<String> live = new HashSet<>(ring.nodes());
+        live.remove(self);
+        return live;
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:2000}")
+    public void heartbeat() {
+        if (!enabled || peers.isEmpty()) {
+            return;
+        }
+        try {
+            for (String peer : peers) {
+                if (peerClient.ping(peer)) {
+                    missedPings.remove(peer);
+                } else {
+                    missedPings.merge(peer, 1, Integer::sum);
+                }
+            }
+
+            Set<String> live = new HashSet<>(allNodes());
+            missedPings.forEach((peer, missed) -> {
+                if (missed >= failureThreshold) {
+                    live.remove(peer);
+                }
+            });
+            if (!live.equals(ring.nodes())) {
+                logger.info("Cluster membership changed from {} to {}; moving session ownership", ring.nodes(), live);
+                ring = new ConsistentHashRing(live, virtualNodes);
+                events.publishEvent(new RingChanged(ring, self));
+            }
+        } catch (Exception e) {
+            logger.error("Error checking cluster peers: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The ring changed; sessions for which {@link #isLocal} is now false belong to another node
+     */
+    public record RingChanged(ConsistentHashRing ring, String self) {
+        public boolean isLocal(Long sessionId) {
+            return self.equals(ring.nodeFor(sessionId));
+        }
+    }
+
+    private List<String> allNodes() {
+        List<String> all = new ArrayList<>(peers);
+        all.add(self);
+        return all;
+    }
+
+    private static String trimSlash(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
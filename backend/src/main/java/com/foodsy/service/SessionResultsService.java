@@ -0,0 +1,146 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Session;
+import com.foodsy.domain.SessionRestaurant;
+import com.foodsy.dto.SessionResultsDto;
+import com.foodsy.dto.SessionResultsDto.Entry;
+import com.foodsy.repository.SessionRepository;
+import com.foodsy.repository.SessionRestaurantRepository;
+import com.foodsy.util.TransactionHooks;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Computes session results from one load of the session's restaurants: round 1
+ * likes are summed per provider in a single pass and joined to the round 2
+ * finalists by provider id.
+ *
+ * Once a session is completed or ended its results no longer change, so they are
+ * cached together with an ETag and served from memory to every later request.
+ */
+@Service
+public class SessionResultsService {
+
+    private static final int MAX_CACHED_SESSIONS = 1000;
+    private static final Set<String> FINAL_STATUSES = Set.of("completed", "ENDED", "ended", "expired");
+
+    // Same order as the round 2 cut: likes, then rating, rating count and provider id
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::voteCount).reversed()
+        .thenComparing(e -> e.rating() != null ? e.rating() : 0.0, Comparator.reverseOrder())
+        .thenComparing(e -> e.userRatingCount() != null ? e.userRatingCount() : 0, Comparator.reverseOrder())
+        .thenComparing(e -> e.providerId() != null ? e.providerId() : "");
+
+    private final SessionRepository sessionRepository;
+    private final SessionRestaurantRepository restaurantRepository;
+
+    private final Map<Long, SessionResults> finalResults = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SessionResults> eldest) {
+                return size() > MAX_CACHED_SESSIONS;
+            }
+        });
+
+    public SessionResultsService(SessionRepository sessionRepository,
+                                 SessionRestaurantRepository restaurantRepository) {
+        this.sessionRepository = sessionRepository;
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    /**
+     * Compute the results of a session that is being completed or ended. They are
+     * only cached as final once the surrounding transaction commits, so a completion
+     * that rolls back never leaves results behind for a session still in play.
+     */
+    public SessionResultsDto finalizeResults(Long sessionId) {
+        SessionResults results = compute(sessionId);
+        TransactionHooks.afterCommit(() -> finalResults.put(sessionId, results));
+        return results.body();
+    }
+
+    /**
+     * Current results of a session; empty if the session does not exist
+     */
+    public Optional<SessionResults> getResults(Long sessionId) {
+        SessionResults cached = finalResults.get(sessionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Session> session = sessionRepository.findById(sessionId);
+        if (session.isEmpty()) {
+            return Optional.empty();
+        }
+        SessionResults results = compute(sessionId);
+        if (FINAL_STATUSES.contains(session.get().getStatus())) {
+            finalResults.put(sessionId, results);
+        }
+        return Optional.of(results);
+    }
+
+    private SessionResults compute(Long sessionId) {
+        List<SessionRestaurant> round1 = new ArrayList<>();
+        List<SessionRestaurant> round2 = new ArrayList<>();
+        Map<String, Integer> round1Votes = new HashMap<>();
+        int totalVotes = 0;
+        for (SessionRestaurant restaurant : restaurantRepository.findBySessionId(sessionId)) {
+            int likes = likes(restaurant);
+            totalVotes += likes;
+            if (restaurant.getRound() != null && restaurant.getRound() == 2) {
+                round2.add(restaurant);
+            } else {
+                round1.add(restaurant);
+                round1Votes.merge(restaurant.getProviderId(), likes, Integer::sum);
+            }
+        }
+
+        boolean reachedRound2 = !round2.isEmpty();
+        List<Entry> rankings = new ArrayList<>();
+        for (SessionRestaurant restaurant : reachedRound2 ? round2 : round1) {
+            int firstRound = reachedRound2 ? round1Votes.getOrDefault(restaurant.getProviderId(), 0) : likes(restaurant);
+            int secondRound = reachedRound2 ? likes(restaurant) : 0;
+            rankings.add(toEntry(restaurant, firstRound, secondRound));
+        }
+        rankings.sort(RANKING);
+
+        SessionResultsDto body = new SessionResultsDto(sessionId, reachedRound2 ? 2 : 1,
+            rankings.isEmpty() ? null : rankings.getFirst(), List.copyOf(rankings), totalVotes);
+        return new SessionResults(body, sessionId + "-" + Integer.toHexString(body.hashCode()));
+    }
+
+    private static Entry toEntry(SessionRestaurant restaurant, int round1Votes, int round2Votes) {
+        return new Entry(
+            restaurant.getId(),
+            restaurant.getProviderId(),
+            restaurant.getName(),
+            restaurant.getAddress(),
+            restaurant.getCategory(),
+            restaurant.getRating() != null ? restaurant.getRating() : 0.0,
+            restaurant.getUserRatingCount() != null ? restaurant.getUserRatingCount() : 0,
+            restaurant.getCurrentOpeningHours() != null ? restaurant.getCurrentOpeningHours() : "",
+            restaurant.getGenerativeSummary() != null ? restaurant.getGenerativeSummary() : "",
+            restaurant.getReviewSummary() != null ? restaurant.getReviewSummary() : "",
+            restaurant.getPriceRange() != null ? restaurant.getPriceRange() : "",
+            round1Votes + round2Votes,
+            round1Votes,
+            round2Votes
+        );
+    }
+
+    private static int likes(SessionRestaurant restaurant) {
+        return restaurant.getLikeCount() != null ? restaurant.getLikeCount() : 0;
+    }
+
+    /**
+     * Results with the ETag identifying this version of them
+     */
+    public record SessionResults(SessionResultsDto body, String etag) {}
+}
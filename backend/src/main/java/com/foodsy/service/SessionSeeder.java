@@ -0,0 +1,224 @@
+package com.foodsy.service;
+
+import com.foodsy.client.GooglePlacesClient;
+import com.foodsy.domain.RestaurantCache;
+import com.foodsy.domain.SessionRestaurant;
+import com.foodsy.dto.GooglePlacesSearchResponse;
+import com.foodsy.repository.RestaurantCacheRepository;
+import com.foodsy.repository.SessionRestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Seeds a new session's restaurant pool in a single pass. Where the area has a
+ * precomputed candidate pool the session takes a slice of it; otherwise candidates
+ * near the session's coordinates come from restaurant_cache, with at most one
+ * Places nearby search when the cache cannot fill the pool. Candidates are
+ * filtered, de-duplicated and diversified across price, rating band and type,
+ * then inserted in one batch.
+ */
+@Service
+public class SessionSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionSeeder.class);
+
+    // Used when neither the client nor IP geolocation provides coordinates (Astoria, Queens)
+    static final double DEFAULT_LATITUDE = 40.7644;
+    static final double DEFAULT_LONGITUDE = -73.9235;
+
+    static final double RADIUS_METERS = 4000.0;
+    private static final double MIN_RATING = 3.0;
+    private static final double METERS_PER_DEGREE_LATITUDE = 111_320.0;
+
+    private final RestaurantCacheRepository cacheRepository;
+    private final SessionRestaurantRepository restaurantRepo;
+    private final GooglePlacesClient placesClient;
+    private final SessionCandidatePoolService candidatePools;
+
+    public SessionSeeder(RestaurantCacheRepository cacheRepository,
+                         SessionRestaurantRepository restaurantRepo,
+                         GooglePlacesClient placesClient,
+                         SessionCandidatePoolService candidatePools) {
+        this.cacheRepository = cacheRepository;
+        this.restaurantRepo = restaurantRepo;
+        this.placesClient = placesClient;
+        this.candidatePools = candidatePools;
+    }
+
+    /**
+     * Pick and insert the round-one restaurants for a session. Missing coordinates
+     * fall back to the default area.
+     */
+    public List<SessionRestaurant> seed(Long sessionId, int poolSize, Double lat, Double lng) {
+        double latitude = lat != null && lng != null ? lat : DEFAULT_LATITUDE;
+        double longitude = lat != null && lng != null ? lng : DEFAULT_LONGITUDE;
+
+        Optional<List<Candidate>> pooled = candidatePools.take(latitude, longitude, poolSize, sessionId);
+        if (pooled.isPresent()) {
+            List<SessionRestaurant> saved = restaurantRepo.saveAll(
+                pooled.get().stream().map(c -> c.toSessionRestaurant(sessionId)).toList());
+            logger.debug("Seeded session {} with {} restaurants from the candidate pool", sessionId, saved.size());
+            return saved;
+        }
+
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (RestaurantCache cached : findCachedNear(latitude, longitude)) {
+            Candidate candidate = Candidate.fromCache(cached);
+            if (candidate.isAcceptable()) {
+                candidates.putIfAbsent(candidate.providerId(), candidate);
+            }
+        }
+        if (candidates.size() < poolSize) {
+            GooglePlacesSearchResponse nearby = placesClient.searchNearby(latitude, longitude, RADIUS_METERS, Math.max(20, poolSize));
+            for (GooglePlacesSearchResponse.Place place : nearby.places()) {
+                Candidate candidate = Candidate.fromPlace(place);
+                if (candidate != null && candidate.isAcceptable()) {
+                    candidates.putIfAbsent(candidate.providerId(), candidate);
+                }
+            }
+        }
+
+        List<Candidate> picked = diversify(new ArrayList<>(candidates.values()), poolSize, sessionId);
+        List<SessionRestaurant> rows = picked.stream().map(c -> c.toSessionRestaurant(sessionId)).toList();
+        List<SessionRestaurant> saved = restaurantRepo.saveAll(rows);
+        logger.debug("Seeded session {} with {} of {} candidates", sessionId, saved.size(), candidates.size());
+        return saved;
+    }
+
+    private List<RestaurantCache> findCachedNear(double latitude, double longitude) {
+        double latDelta = RADIUS_METERS / METERS_PER_DEGREE_LATITUDE;
+        double lngDelta = latDelta / Math.cos(Math.toRadians(latitude));
+        List<RestaurantCache> inBox = cacheRepository.findLiveInBoundingBox(
+            latitude - latDelta, latitude + latDelta, longitude - lngDelta, longitude + lngDelta, Instant.now());
+        return inBox.stream()
+            .filter(r -> distanceMeters(latitude, longitude, r.getLatitude(), r.getLongitude()) <= RADIUS_METERS)
+            .toList();
+    }
+
+    /**
+     * Round-robin across price | rating band | type buckets, in an order seeded by the
+     * session id so a session's pool is reproducible
+     */
+    static List<Candidate> diversify(List<Candidate> candidates, int target, Long seed) {
+        Map<String, Deque<Candidate>> buckets = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            buckets.computeIfAbsent(candidate.bucketKey(), k -> new ArrayDeque<>()).add(candidate);
+        }
+        List<String> bucketKeys = new ArrayList<>(buckets.keySet());
+        if (seed != null) {
+            Collections.shuffle(bucketKeys, new Random(seed));
+        }
+
+        List<Candidate> diversified = new ArrayList<>(Math.min(target, candidates.size()));
+        int limit = Math.min(target, candidates.size());
+        while (diversified.size() < limit) {
+            for (String key : bucketKeys) {
+                Candidate next = buckets.get(key).pollFirst();
+                if (next != null) {
+                    diversified.add(next);
+                    if (diversified.size() >= limit) break;
+                }
+            }
+        }
+        return diversified;
+    }
+
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6_371_000 * Math.asin(Math.sqrt(a));
+    }
+
+    /**
+     * A restaurant that could go into a session, from either the cache or Places
+     */
+    record Candidate(
+        String providerId,
+        String name,
+        String address,
+        String category,
+        String priceLevel,
+        String priceRange,
+        Double rating,
+        Integer userRatingCount,
+        String openingHours,
+        String generativeSummary,
+        String reviewSummary,
+        String websiteUri
+    ) {
+        static Candidate fromPlace(GooglePlacesSearchResponse.Place place) {
+            if (place == null || place.id() == null) {
+                return null;
+            }
+            String name = place.displayName() != null ? place.displayName().text() : place.name();
+            return new Candidate(place.id(), name, place.formattedAddress(),
+                RestaurantCacheService.extractCategory(place.types()),
+                place.priceLevel() != null ? place.priceLevel().name() : null, place.priceRange(),
+                place.rating(), place.userRatingsTotal(), place.currentOpeningHours(),
+                place.generativeSummary(), place.reviewSummary(), place.websiteUri());
+        }
+
+        static Candidate fromCache(RestaurantCache cached) {
+            return new Candidate(cached.getPlaceId(), cached.getName(), cached.getAddress(),
+                cached.getCategory() != null ? cached.getCategory() : "Restaurant",
+                priceLevelName(cached.getPriceLevel()), null, cached.getRating(), cached.getUserRatingCount(),
+                cached.getOpeningHours(), cached.getGenerativeSummary(), cached.getReviewSummary(),
+                cached.getWebsiteUri());
+        }
+
+        boolean isAcceptable() {
+            return name != null && (rating == null || rating >= MIN_RATING);
+        }
+
+        String bucketKey() {
+            String price = priceLevel != null ? priceLevel : "UNKNOWN";
+            String band = rating == null ? "R0" : rating >= 4.5 ? "R45" : rating >= 4.0 ? "R40" : rating >= 3.5 ? "R35" : "R30";
+            return price + "|" + band + "|" + category;
+        }
+
+        SessionRestaurant toSessionRestaurant(Long sessionId) {
+            SessionRestaurant sr = new SessionRestaurant();
+            sr.setSessionId(sessionId);
+            sr.setProviderId(providerId);
+            sr.setName(name);
+            sr.setAddress(address);
+            sr.setCategory(category);
+            sr.setRound(1);
+            sr.setLikeCount(0);
+            sr.setPriceLevel(priceLevel);
+            sr.setPriceRange(priceRange);
+            sr.setRating(rating);
+            sr.setUserRatingCount(userRatingCount);
+            sr.setCurrentOpeningHours(openingHours);
+            sr.setGenerativeSummary(generativeSummary);
+            sr.setReviewSummary(reviewSummary);
+            sr.setWebsiteUri(websiteUri);
+            return sr;
+        }
+
+        // Inverse of the cache's 1-3 price tiers
+        private static String priceLevelName(Integer level) {
+            if (level == null) return null;
+            return switch (level) {
+                case 1 -> GooglePlacesSearchResponse.PriceLevel.PRICE_LEVEL_INEXPENSIVE.name();
+                case 2 -> GooglePlacesSearchResponse.PriceLevel.PRICE_LEVEL_MODERATE.name();
+                case 3 -> GooglePlacesSearchResponse.PriceLevel.PRICE_LEVEL_EXPENSIVE.name();
+                default -> null;
+            };
+        }
+    }
+}
@@ -1,110 +1,59 @@
 package com.foodsy.service;
 
-import com.foodsy.client.GooglePlacesClient;
 import com.foodsy.client.IpGeoClient;
 import com.foodsy.domain.Session;
 import com.foodsy.domain.SessionParticipant;
-import com.foodsy.domain.SessionRestaurant;
-import com.foodsy.dto.GooglePlacesSearchResponse;
 import com.foodsy.dto.SessionRequest;
-import com.foodsy.dto.RestaurantDto;
-import com.foodsy.example.session.JoinCodeGenerator;
 import com.foodsy.repository.SessionParticipantRepository;
 import com.foodsy.repository.SessionRepository;
-import com.foodsy.repository.SessionRestaurantRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.Optional;
 
 @Service
 public class SessionService {
     private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
 
     private final SessionRepository sessionRepository;
-    private final SessionRestaurantRepository restaurantRepo;
-    private final GooglePlacesClient placesClient;
+    private final SessionSeeder sessionSeeder;
     private final SessionParticipantRepository sessionParticipantRepository;
     private final IpGeoClient ipGeoClient;
+    private final JoinCodeAllocator joinCodeAllocator;
+    private final SessionActivityTracker activityTracker;
+    private final SessionMembership membership;
+    private final RoundProgressTracker roundProgress;
 
     
     @Value("${session.timeout.max-duration-hours:1}")
     private int maxDurationHours;
 
-    public SessionService(SessionRepository sessionRepo, SessionRestaurantRepository restaurantRepo, GooglePlacesClient placesClient, SessionParticipantRepository sessionParticipantRepository, IpGeoClient ipGeoClient) {
+    public SessionService(SessionRepository sessionRepo, SessionSeeder sessionSeeder, SessionParticipantRepository sessionParticipantRepository, IpGeoClient ipGeoClient, JoinCodeAllocator joinCodeAllocator, SessionActivityTracker activityTracker, SessionMembership membership, RoundProgressTracker roundProgress) {
         this.sessionRepository = sessionRepo;
-        this.restaurantRepo = restaurantRepo;
-        this.placesClient = placesClient;
+        this.sessionSeeder = sessionSeeder;
         this.sessionParticipantRepository = sessionParticipantRepository;
         this.ipGeoClient = ipGeoClient;
+        this.joinCodeAllocator = joinCodeAllocator;
+        this.activityTracker = activityTracker;
+        this.membership = membership;
+        this.roundProgress = roundProgress;
     }
+    /**
+     * Create a session from a legacy request without location; it is seeded around
+     * the default area.
+     */
     public Session createSession(Session session) {
         try {
-            
-            String code;
-            do {
-                code = JoinCodeGenerator.generate();
-            } while (sessionRepository.findByJoinCode(code).isPresent());
-
-            if (session.getCreatorId() == null || session.getPoolSize() == null) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing required fields: creatorId, poolSize");
-            }
-
-            session.setJoinCode(code);
-            session.setStatus("OPEN");
-            
-            // Set session expiration time
-            Instant now = Instant.now();
-            session.setCreatedAt(now);
-            session.setLastActivityAt(now);
-            session.setExpiresAt(now.plus(maxDurationHours, ChronoUnit.HOURS));
-            
-            Session saved = sessionRepository.save(session);
-            
-            // The controller will now pass optional lat/lng via Session fields or a DTO.
-            // For now preserve legacy behavior by using a default search if not provided.
-            GooglePlacesSearchResponse response = placesClient.search("Astoria, NY", "restaurants");
-            List<GooglePlacesSearchResponse.Place> places = new ArrayList<>(response.places());
-            Collections.shuffle(places);
-            long limit = session.getPoolSize();
-            for (int i = 0; i < Math.min(limit, places.size()); i++) {
-                var place = places.get(i);
-                SessionRestaurant sr = new SessionRestaurant();
-                sr.setSessionId(saved.getId());
-                sr.setProviderId(place.id());
-                sr.setName(place.displayName().text());
-                sr.setAddress(place.formattedAddress());
-                sr.setCategory(place.types().isEmpty() ? "Restaurant" : place.types().getFirst());
-                sr.setRound(1);
-                sr.setLikeCount(0);
-                sr.setPriceLevel(place.priceLevel() != null ? place.priceLevel().name() : null);
-                sr.setPriceRange(place.priceRange());
-                sr.setRating(place.rating());
-                sr.setUserRatingCount(place.userRatingsTotal());
-                sr.setCurrentOpeningHours(place.currentOpeningHours());
-                sr.setGenerativeSummary(place.generativeSummary());
-                sr.setReviewSummary(place.reviewSummary());
-                sr.setWebsiteUri(place.websiteUri());
-                restaurantRepo.save(sr);
-            }
-            
-            // After saving the session
-            SessionParticipant participant = new SessionParticipant();
-            participant.setSession(saved);
-            participant.setUserId(session.getCreatorId());
-            participant.setJoinedAt(Instant.now());
-            sessionParticipantRepository.save(participant);
-            
+            Session saved = openSession(session);
+            sessionSeeder.seed(saved.getId(), saved.getPoolSize(), null, null);
             return saved;
         } catch (Exception e) {
             logger.error("Error in createSession: {}", e.getMessage(), e);
@@ -113,8 +62,7 @@ public class SessionService {
     }
 
     /**
-     * New geolocation-aware variant using provided coordinates or IP geo fallback.
-     * Radius default: 4000m. Diversified seeding TBD.
+     * Geolocation-aware variant using provided coordinates or IP geo fallback
      */
     public Session createSession(SessionRequest req, String creatorId, String clientIp) {
         if (creatorId == null || req == null || req.getPoolSize() == null) {
@@ -126,105 +74,71 @@ public class SessionService {
         session.setPoolSize(req.getPoolSize());
         session.setRoundTime(req.getRoundTime());
         session.setLikesPerUser(req.getLikesPerUser());
-        session.setStatus("OPEN");
 
-        Session saved = createSession(session);
+        Session saved = openSession(session);
 
         // Resolve coordinates: provided lat/lng else IP geo fallback
         Double lat = req.getLat();
         Double lng = req.getLng();
         if (lat == null || lng == null) {
-            ipGeoClient.lookup(clientIp).ifPresent(coords -> {
-                // box into Double
-                // Only set if still null
-                if (req.getLat() == null) req.setLat(coords[0]);
-                if (req.getLng() == null) req.setLng(coords[1]);
-            });
-            lat = req.getLat();
-            lng = req.getLng();
+            Optional<double[]> coords = ipGeoClient.lookup(clientIp);
+            if (coords.isPresent()) {
+                lat = lat != null ? lat : coords.get()[0];
+                lng = lng != null ? lng : coords.get()[1];
+            }
         }
 
-        if (lat != null && lng != null) {
-            GooglePlacesSearchResponse nearby = placesClient.searchNearby(lat, lng, 4000.0, Math.max(20, req.getPoolSize()));
-            List<GooglePlacesSearchResponse.Place> places = new ArrayList<>(nearby.places());
-            // Filter out clearly low-quality (rating < 3.0) or missing names
-            places = places.stream()
-                    .filter(p -> p != null && p.name() != null && (p.rating() == null || p.rating() >= 3.0))
-                    .toList();
-
-            // Dedupe by providerId
-            java.util.LinkedHashMap<String, GooglePlacesSearchResponse.Place> byId = new java.util.LinkedHashMap<>();
-            for (var p : places) {
-                byId.putIfAbsent(p.id(), p);
-            }
-            List<GooglePlacesSearchResponse.Place> unique = new java.util.ArrayList<>(byId.values());
+        sessionSeeder.seed(saved.getId(), req.getPoolSize(), lat, lng);
+        return saved;
+    }
 
-            // Diversify buckets: priceLevel + rating band + primary type
-            java.util.Map<String, java.util.Deque<GooglePlacesSearchResponse.Place>> buckets = new java.util.LinkedHashMap<>();
-            for (var p : unique) {
-                String price = p.priceLevel() != null ? p.priceLevel().name() : "UNKNOWN";
-                String band = p.rating() == null ? "R0" : (p.rating() >= 4.5 ? "R45" : p.rating() >= 4.0 ? "R40" : p.rating() >= 3.5 ? "R35" : "R30");
-                String type = (p.types() != null && !p.types().isEmpty()) ? p.types().getFirst() : "restaurant";
-                String key = price + "|" + band + "|" + type;
-                buckets.computeIfAbsent(key, k -> new java.util.ArrayDeque<>()).add(p);
-            }
+    /**
+     * Validate, stamp and persist a new session along with its creator as the first participant
+     */
+    private Session openSession(Session session) {
+        if (session.getCreatorId() == null || session.getPoolSize() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing required fields: creatorId, poolSize");
+        }
 
-            // Create a deterministic iteration order over buckets based on sessionId seed
-            java.util.List<String> bucketKeys = new java.util.ArrayList<>(buckets.keySet());
-            seededShuffle(bucketKeys, saved.getId());
+        session.setStatus("OPEN");
 
-            // Round-robin sample across buckets to target pool size
-            java.util.List<GooglePlacesSearchResponse.Place> diversified = new java.util.ArrayList<>();
-            int target = Math.min(req.getPoolSize(), unique.size());
-            while (diversified.size() < target) {
-                boolean tookAny = false;
-                for (String key : bucketKeys) {
-                    var dq = buckets.get(key);
-                    if (dq == null || dq.isEmpty()) continue;
-                    diversified.add(dq.pollFirst());
-                    tookAny = true;
-                    if (diversified.size() >= target) break;
-                }
-                if (!tookAny) break; // all buckets empty
-            }
+        // Set session expiration time
+        Instant now = Instant.now();
+        session.setCreatedAt(now);
+        session.setLastActivityAt(now);
+        session.setExpiresAt(now.plus(maxDurationHours, ChronoUnit.HOURS));
 
-            // Replace any existing seeded restaurants with this nearby pool
-            List<SessionRestaurant> existing = restaurantRepo.findBySessionId(saved.getId());
-            restaurantRepo.deleteAll(existing);
+        Session saved = saveWithJoinCode(session);
 
-            for (var place : diversified) {
-                SessionRestaurant sr = new SessionRestaurant();
-                sr.setSessionId(saved.getId());
-                sr.setProviderId(place.id());
-                sr.setName(place.displayName() != null ? place.displayName().text() : place.name());
-                sr.setAddress(place.formattedAddress());
-                sr.setCategory(place.types() != null && !place.types().isEmpty() ? place.types().getFirst() : "Restaurant");
-                sr.setRound(1);
-                sr.setLikeCount(0);
-                sr.setPriceLevel(place.priceLevel() != null ? place.priceLevel().name() : null);
-                sr.setPriceRange(place.priceRange());
-                sr.setRating(place.rating());
-                sr.setUserRatingCount(place.userRatingsTotal());
-                sr.setCurrentOpeningHours(place.currentOpeningHours());
-                sr.setGenerativeSummary(place.generativeSummary());
-                sr.setReviewSummary(place.reviewSummary());
-                sr.setWebsiteUri(place.websiteUri());
-                restaurantRepo.save(sr);
-            }
-        }
+        SessionParticipant participant = new SessionParticipant();
+        participant.setSession(saved);
+        participant.setUserId(session.getCreatorId());
+        participant.setJoinedAt(now);
+        sessionParticipantRepository.save(participant);
+        membership.created(saved.getId(), participant.getUserId());
 
         return saved;
     }
 
-    private static <T> void seededShuffle(java.util.List<T> list, Long seedSource) {
-        if (list == null || list.size() <= 1 || seedSource == null) return;
-        java.util.Random rnd = new java.util.Random(seedSource);
-        for (int i = list.size() - 1; i > 0; i--) {
-            int j = rnd.nextInt(i + 1);
-            if (j == i) continue;
-            java.util.Collections.swap(list, i, j);
+    /**
+     * Persist a new session with a pooled join code. The unique index on live join
+     * codes is the backstop; a violation just means we draw another code. Flushing
+     * raises the violation here, and the id the failed insert drew is cleared so the
+     * next attempt inserts again instead of merging a row that does not exist.
+     */
+    private Session saveWithJoinCode(Session session) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            session.setJoinCode(joinCodeAllocator.allocate());
+            try {
+                return sessionRepository.saveAndFlush(session);
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Join code {} already in use, drawing another", session.getJoinCode());
+                session.setId(null);
+            }
         }
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not allocate a join code");
     }
+
     public Session getSession(Long id, String userId) {
         if (id == null || userId == null) return null;
         Session session = sessionRepository.findById(id).orElse(null);
@@ -235,23 +149,16 @@ public class SessionService {
         if (session.isExpired()) {
             session.setStatus("expired");
             sessionRepository.save(session);
+            joinCodeAllocator.release(session.getJoinCode());
+            activityTracker.forget(id);
+            roundProgress.closeSession(id);
             throw new ResponseStatusException(HttpStatus.GONE, "Session has expired");
         }
 
         // Update session activity
         updateSessionActivity(session);
 
-        // Check if user already a participant
-        boolean isParticipant = sessionParticipantRepository
-                .findBySessionIdAndUserId(id, userId)
-                .isPresent();
-        if (!isParticipant) {
-            SessionParticipant participant = new SessionParticipant();
-            participant.setSession(session);
-            participant.setUserId(userId);
-            participant.setJoinedAt(Instant.now());
-            sessionParticipantRepository.save(participant);
-        }
+        membership.join(session, userId);
         return session;
     }
     public List<SessionParticipant> getParticipants(Long id) {
@@ -264,53 +171,17 @@ public class SessionService {
         
         session.setStatus("ENDED");
         sessionRepository.save(session);
-    }
-
-    public List<RestaurantDto> getFinalRankings(Long sessionId) {
-        List<SessionRestaurant> restaurants = restaurantRepo.findBySessionId(sessionId);
-        
-        return restaurants.stream()
-            .sorted(Comparator.comparingInt(SessionRestaurant::getLikeCount).reversed())
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
-    }
-
-    public RestaurantDto getWinner(Long sessionId) {
-        List<RestaurantDto> rankings = getFinalRankings(sessionId);
-        return rankings.isEmpty() ? null : rankings.get(0);
-    }
-
-    public int getTotalVotes(Long sessionId) {
-        List<SessionRestaurant> restaurants = restaurantRepo.findBySessionId(sessionId);
-        return restaurants.stream()
-            .mapToInt(SessionRestaurant::getLikeCount)
-            .sum();
-    }
-
-    private RestaurantDto convertToDto(SessionRestaurant restaurant) {
-        return new RestaurantDto(
-            restaurant.getProviderId(),
-            restaurant.getName(),
-            restaurant.getAddress(),
-            restaurant.getCategory(),
-            restaurant.getPriceLevel(),
-            restaurant.getPriceRange(),
-            restaurant.getRating(),
-            restaurant.getUserRatingCount(),
-            restaurant.getCurrentOpeningHours(),
-            restaurant.getGenerativeSummary(),
-            restaurant.getReviewSummary(),
-            restaurant.getWebsiteUri()
-        );
+        joinCodeAllocator.release(session.getJoinCode());
+        activityTracker.forget(sessionId);
+        roundProgress.closeSession(sessionId); // stops the round timer
     }
     
     /**
-     * Update session activity timestamp
+     * Record session activity; written back to the database by SessionActivityTracker
      */
     public void updateSessionActivity(Session session) {
         if (session != null && session.isActive()) {
-            session.updateActivity();
-            sessionRepository.save(session);
+            activityTracker.touch(session.getId());
         }
     }
     
@@ -318,9 +189,7 @@ public class SessionService {
      * Update session activity by ID
      */
     public void updateSessionActivity(Long sessionId) {
-        sessionRepository.findById(sessionId).ifPresent(session -> {
-            updateSessionActivity(session);
-        });
+        activityTracker.touch(sessionId);
     }
     
     /**
@@ -330,6 +199,9 @@ public class SessionService {
         sessionRepository.findById(sessionId).ifPresent(session -> {
             session.setStatus("ended");
             sessionRepository.save(session);
+            joinCodeAllocator.release(session.getJoinCode());
+            activityTracker.forget(sessionId);
+            roundProgress.closeSession(sessionId);
             
             // Log the reason for ending the session
             logger.info("Session {} ended: {}", sessionId, reason != null ? reason : "Manual termination");
@@ -1,10 +1,7 @@
 package com.foodsy.service;
 
 import com.foodsy.domain.Session;
-import com.foodsy.domain.SessionRestaurant;
 import com.foodsy.repository.SessionRepository;
-import com.foodsy.repository.SessionRestaurantRepository;
-import com.foodsy.repository.SessionParticipantRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +10,9 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Service
 @EnableAsync
@@ -27,8 +21,8 @@ public class SessionTimerService {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final SessionRepository sessionRepository;
-    private final SessionRestaurantRepository sessionRestaurantRepository;
-    private final SessionParticipantRepository sessionParticipantRepository;
+    private final RoundService roundService;
+    private final RoundProgressTracker roundProgress;
     
     // Track active timers to prevent duplicates
     private final Set<String> activeTimers = ConcurrentHashMap.newKeySet();
@@ -36,12 +30,12 @@ public class SessionTimerService {
     @Autowired
     public SessionTimerService(SimpMessagingTemplate messagingTemplate,
                               SessionRepository sessionRepository,
-                              SessionRestaurantRepository sessionRestaurantRepository,
-                              SessionParticipantRepository sessionParticipantRepository) {
+                              RoundService roundService,
+                              RoundProgressTracker roundProgress) {
         this.messagingTemplate = messagingTemplate;
         this.sessionRepository = sessionRepository;
-        this.sessionRestaurantRepository = sessionRestaurantRepository;
-        this.sessionParticipantRepository = sessionParticipantRepository;
+        this.roundService = roundService;
+        this.roundProgress = roundProgress;
     }
 
     @Async
@@ -68,6 +62,11 @@ public class SessionTimerService {
         long interval = 1000; // 1 second updates
         long millisLeft = durationMillis;
         while (millisLeft > 0) {
+            if (roundProgress.isClosed(sessionId, round)) {
+                // Completed early: by the host or because every participant has voted
+                logger.debug("Round {} of session {} closed, stopping its timer", round, sessionId);
+                return;
+            }
             // Send timerUpdate event
             messagingTemplate.convertAndSend(
                 "/topic/session/" + sessionId,
@@ -94,30 +93,16 @@ public class SessionTimerService {
                 )
             )
         );
-        // 2. On timer expiry, calculate real top K restaurants for this round
-        List<SessionRestaurant> restaurants = sessionRestaurantRepository.findBySessionId(sessionId)
-            .stream()
-            .filter(r -> r.getRound() == round)
-            .sorted(Comparator.comparing(SessionRestaurant::getLikeCount).reversed())
-            .collect(Collectors.toList());
-        int groupSize = sessionParticipantRepository.findBySessionId(sessionId).size();
-        int k = Math.min(5, groupSize + 2);
-        List<String> topK = restaurants.stream()
-            .limit(k)
-            .map(SessionRestaurant::getName)
-            .collect(Collectors.toList());
-        // Timer expired, send roundTransition event with real top K
-        messagingTemplate.convertAndSend(
-            "/topic/session/" + sessionId,
-            Map.of(
-                "type", "roundTransition",
-                "payload", Map.of(
-                    "sessionId", sessionId,
-                    "newRound", round + 1,
-                    "topK", topK
-                )
-            )
-        );
+        // 2. On timer expiry, complete the round; a no-op if it was completed meanwhile
+        try {
+            if (round == 1) {
+                roundService.transitionToRound2(sessionId);
+            } else {
+                roundService.completeSession(sessionId);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to complete round {} of session {} on timer expiry: {}", round, sessionId, e.getMessage(), e);
+        }
         } finally {
             // Remove timer from active set when done
             activeTimers.remove(timerKey);
@@ -0,0 +1,99 @@
+package com.foodsy.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the votes of a session one at a time, in the order they arrived. Sessions are
+ * spread over a fixed number of single-threaded lanes by id, so votes of different
+ * sessions still run in parallel while those of one session never race each other.
+ * That only holds as long as every vote goes through here: STOMP votes are queued,
+ * and the HTTP vote endpoints wait on the queue for their outcome.
+ */
+@Service
+public class SessionVoteQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionVoteQueue.class);
+
+    private final ExecutorService[] lanes;
+    private final long timeoutMs;
+
+    public SessionVoteQueue(@Value("${session.votes.lanes:4}") int laneCount,
+                            @Value("${session.votes.timeout-ms:5000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.lanes = new ExecutorService[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("session-votes-" + i).factory());
+        }
+    }
+
+    /**
+     * Run a vote and hand back its outcome
+     */
+    public <T> CompletableFuture<T> call(Long sessionId, Supplier<T> vote) {
+        return CompletableFuture.supplyAsync(vote, laneOf(sessionId));
+    }
+
+    /**
+     * Run a vote and wait for its outcome; whatever the vote throws is rethrown as is.
+     * If the lane has not finished it within the timeout the caller gets a 503, and a
+     * vote that has not started by then is withdrawn.
+     */
+    public <T> T await(Long sessionId, Supplier<T> vote) {
+        CompletableFuture<T> outcome = call(sessionId, vote);
+        try {
+            return outcome.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            outcome.cancel(false);
+            logger.warn("Vote for session {} not processed within {} ms", sessionId, timeoutMs);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Votes are backed up, try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome.cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while voting");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void submit(Long sessionId, Runnable vote) {
+        laneOf(sessionId).execute(() -> {
+            try {
+                vote.run();
+            } catch (Exception e) {
+                logger.error("Vote for session {} failed: {}", sessionId, e.getMessage(), e);
+            }
+        });
+    }
+
+    private ExecutorService laneOf(Long sessionId) {
+        return lanes[Math.floorMod(Objects.hashCode(sessionId), lanes.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
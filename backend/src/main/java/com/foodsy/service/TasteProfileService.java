@@ -1,17 +1,23 @@
 package com.foodsy.service;
 
+import com.foodsy.domain.Cuisine;
 import com.foodsy.domain.User;
 import com.foodsy.domain.UserTastePreferences;
 import com.foodsy.dto.TasteProfileDto;
 import com.foodsy.repository.UserTastePreferencesRepository;
 import com.foodsy.repository.UserRepository;
+import com.foodsy.util.TransactionHooks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -26,12 +32,11 @@ public class TasteProfileService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSimilarityIndex similarityIndex;
+
     // Available options for frontend
-    public static final Set<String> AVAILABLE_CUISINES = Set.of(
-        "Italian", "Chinese", "Mexican", "American", "Thai", "Indian", 
-        "Japanese", "Korean", "Mediterranean", "French", "Vegan", "Vegetarian",
-        "Greek", "Vietnamese", "Turkish", "Lebanese", "Spanish", "Brazilian"
-    );
+    public static final Set<String> AVAILABLE_CUISINES = Collections.unmodifiableSet(Cuisine.fromMask(-1));
 
     public static final Set<String> AVAILABLE_PRICE_RANGES = Set.of("$", "$$", "$$$");
 
@@ -54,8 +59,7 @@ public class TasteProfileService {
      */
     public boolean hasCompletedOnboarding(Long userId) {
         Optional<UserTastePreferences> preferences = tastePreferencesRepository.findByUserId(userId);
-        return preferences.map(p -> p.getPreferredCuisines() != null && 
-                                   !p.getPreferredCuisines().isEmpty() &&
+        return preferences.map(p -> p.getCuisineMask() != 0 &&
                                    p.getPriceRange() != null && 
                                    p.getPreferredBorough() != null).orElse(false);
     }
@@ -86,6 +90,11 @@ public class TasteProfileService {
 
         // Save to database
         preferences = tastePreferencesRepository.save(preferences);
+        int cuisineMask = preferences.getCuisineMask();
+        String priceRange = preferences.getPriceRange();
+        String borough = preferences.getPreferredBorough();
+        // The index must not see a profile that is rolled back
+        TransactionHooks.afterCommit(() -> similarityIndex.put(userId, cuisineMask, priceRange, borough));
 
         logger.info("Successfully saved taste profile for user: {} with {} cuisines, price range: {}, borough: {}", 
                    userId, preferences.getPreferredCuisines().size(), 
@@ -104,30 +113,31 @@ public class TasteProfileService {
         tastePreferencesRepository.findByUserId(userId)
             .ifPresent(preferences -> {
                 tastePreferencesRepository.delete(preferences);
+                TransactionHooks.afterCommit(() -> similarityIndex.remove(userId));
                 logger.info("Successfully deleted taste profile for user: {}", userId);
             });
     }
 
     /**
-     * Find users with similar taste preferences
+     * Find users with similar taste preferences (cuisines, price range and borough)
      */
     public List<UserTastePreferences> findSimilarUsers(Long userId, int limit) {
         logger.debug("Finding similar users for user: {}", userId);
         
-        Optional<UserTastePreferences> userPreferences = tastePreferencesRepository.findByUserId(userId);
-        if (userPreferences.isEmpty()) {
+        List<Long> similarUserIds = similarityIndex.findSimilarUsers(userId, limit);
+        if (similarUserIds.isEmpty()) {
             return List.of();
         }
 
-        UserTastePreferences prefs = userPreferences.get();
-        List<UserTastePreferences> similarUsers = tastePreferencesRepository
-            .findSimilarUsers(prefs.getPreferredBorough(), prefs.getPriceRange());
-
-        // Remove the current user from results
-        similarUsers.removeIf(similar -> similar.getUser().getId().equals(userId));
-
-        // Limit results
-        return similarUsers.stream().limit(limit).toList();
+        // Load the profiles and keep the index's ranking
+        Map<Long, UserTastePreferences> byUserId = new HashMap<>();
+        for (UserTastePreferences similar : tastePreferencesRepository.findByUserIdIn(similarUserIds)) {
+            byUserId.put(similar.getUser().getId(), similar);
+        }
+        return similarUserIds.stream()
+            .map(byUserId::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 
     /**
@@ -135,7 +145,9 @@ public class TasteProfileService {
      */
     public List<UserTastePreferences> getUsersPreferringCuisine(String cuisine) {
         logger.debug("Finding users who prefer cuisine: {}", cuisine);
-        return tastePreferencesRepository.findUsersByCuisine(cuisine);
+        return Cuisine.fromDisplayName(cuisine)
+            .map(c -> tastePreferencesRepository.findUsersByCuisineMask(c.bit()))
+            .orElse(List.of());
     }
 
     /**
@@ -154,9 +166,9 @@ public class TasteProfileService {
         
         List<Object[]> boroughStats = tastePreferencesRepository.countUsersByBorough();
         List<Object[]> priceStats = tastePreferencesRepository.countUsersByPriceRange();
-        List<UserTastePreferences> veganVegetarianUsers = tastePreferencesRepository.findVeganVegetarianUsers();
+        long veganVegetarianCount = tastePreferencesRepository.countUsersByCuisineMask(Cuisine.DIETARY_MASK);
 
-        return new TasteProfileStats(boroughStats, priceStats, veganVegetarianUsers.size());
+        return new TasteProfileStats(boroughStats, priceStats, (int) veganVegetarianCount);
     }
 
     /**
@@ -203,7 +215,7 @@ public class TasteProfileService {
 
         // Validate cuisines
         for (String cuisine : profileDto.getPreferredCuisines()) {
-            if (!AVAILABLE_CUISINES.contains(cuisine)) {
+            if (Cuisine.fromDisplayName(cuisine).isEmpty()) {
                 throw new IllegalArgumentException("Invalid cuisine: " + cuisine + ". Available: " + AVAILABLE_CUISINES);
             }
         }
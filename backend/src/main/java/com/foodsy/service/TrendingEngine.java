@@ -0,0 +1,392 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.RestaurantCache;
+import com.foodsy.dto.RestaurantSummaryDto;
+import com.foodsy.repository.RestaurantCacheRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory trending rankings per borough.
+ *
+ * Each restaurant is scored once into a primitive array, and a score-ordered ranking
+ * per borough yields the current top {@value #TOP_K}. The score combines the static Google
+ * fields with the decayed click signal from ClickTrendTracker. Ingested restaurants
+ * and card clicks update the ranking incrementally; a periodic rebuild from
+ * restaurant_cache picks up expiry and the time-dependent parts of the score.
+ * Updates that arrive while a rebuild is loading are replayed into the rebuilt
+ * rankings before they replace the old ones.
+ */
+@Service
+public class TrendingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingEngine.class);
+
+    static final int TOP_K = 50;
+
+    private static final double CLICK_WEIGHT = 0.1;
+    private static final double CLICKS_FOR_MAX_BOOST = 50.0;
+
+    private final RestaurantCacheRepository cacheRepository;
+    private final ClickTrendTracker clickTracker;
+
+    private final Map<String, BoroughTrending> boroughs = new ConcurrentHashMap<>();
+    private final Map<String, String> boroughByPlace = new ConcurrentHashMap<>();
+    private final Map<String, BoroughLock> locks = new ConcurrentHashMap<>();
+
+    public TrendingEngine(RestaurantCacheRepository cacheRepository, ClickTrendTracker clickTracker) {
+        this.cacheRepository = cacheRepository;
+        this.clickTracker = clickTracker;
+    }
+
+    /**
+     * Trending score from rating, review volume, recency and price level
+     */
+    public static double score(RestaurantCache restaurant, Instant now) {
+        double score = 0.0;
+
+        // Rating trend (40% weight)
+        if (restaurant.getRating() != null) {
+            score += restaurant.getRating() * 0.4;
+        }
+
+        // Review velocity (30% weight)
+        if (restaurant.getUserRatingCount() != null) {
+            double reviewVelocity = Math.min(restaurant.getUserRatingCount() / 100.0, 5.0);
+            score += reviewVelocity * 0.3;
+        }
+
+        // Recency (20% weight)
+        if (restaurant.getLastFetchedAt() != null) {
+            long daysSinceUpdate = ChronoUnit.DAYS.between(restaurant.getLastFetchedAt(), now);
+            double recencyScore = Math.max(5.0 - (daysSinceUpdate / 7.0), 0.0);
+            score += recencyScore * 0.2;
+        }
+
+        // Price level popularity (10% weight) - mid-range restaurants tend to be more popular
+        if (restaurant.getPriceLevel() != null) {
+            double priceScore = restaurant.getPriceLevel() == 2 ? 5.0 : 3.0;
+            score += priceScore * 0.1;
+        }
+
+        return Math.round(score * 100.0) / 100.0; // Round to 2 decimal places
+    }
+
+    /**
+     * Contribution of recent card clicks (10% weight, saturating at CLICKS_FOR_MAX_BOOST)
+     */
+    public static double clickScore(double decayedClicks) {
+        return Math.min(decayedClicks, CLICKS_FOR_MAX_BOOST) / CLICKS_FOR_MAX_BOOST * 5.0 * CLICK_WEIGHT;
+    }
+
+    /**
+     * Summary DTO carrying the restaurant's click count and popularity score
+     */
+    public RestaurantSummaryDto summarize(RestaurantCache restaurant) {
+        double clicks = clickTracker.current(restaurant.getPlaceId());
+        return RestaurantSummaryDto.fromEntityWithAnalytics(restaurant, (int) Math.round(clicks),
+            popularity(score(restaurant, Instant.now()), clicks));
+    }
+
+    private static double popularity(double baseScore, double decayedClicks) {
+        return Math.round((baseScore + clickScore(decayedClicks)) * 100.0) / 100.0;
+    }
+
+    /**
+     * Top trending restaurants for a borough, served from memory. The first request
+     * for a borough builds it; concurrent first requests wait for that one build.
+     */
+    public List<RestaurantSummaryDto> top(String borough, int limit) {
+        BoroughTrending trending = boroughs.get(borough);
+        if (trending == null) {
+            trending = build(borough);
+        }
+        return trending.top(limit, Instant.now().toEpochMilli());
+    }
+
+    private BoroughTrending build(String borough) {
+        BoroughLock lock = lockFor(borough);
+        lock.rebuild.lock();
+        try {
+            BoroughTrending built = boroughs.get(borough); // another request may have built it meanwhile
+            if (built == null) {
+                rebuild(borough);
+                built = boroughs.get(borough);
+            }
+            return built;
+        } finally {
+            lock.rebuild.unlock();
+        }
+    }
+
+    /**
+     * Add or rescore a restaurant that was just ingested
+     */
+    public void offer(RestaurantCache restaurant) {
+        if (restaurant.getPlaceId() == null || restaurant.getBorough() == null) {
+            return;
+        }
+        BoroughLock lock = lockFor(restaurant.getBorough());
+        synchronized (lock) {
+            boroughs.computeIfAbsent(restaurant.getBorough(), b -> new BoroughTrending())
+                .put(restaurant, score(restaurant, Instant.now()), clickTracker.current(restaurant.getPlaceId()));
+            boroughByPlace.put(restaurant.getPlaceId(), restaurant.getBorough());
+            if (lock.pendingOffers != null) {
+                lock.pendingOffers.add(restaurant);
+            }
+        }
+    }
+
+    /**
+     * Count a card click towards the restaurant's trending score
+     */
+    public void recordClick(String placeId) {
+        if (placeId == null) {
+            return;
+        }
+        double clicks = clickTracker.record(placeId);
+        String borough = boroughByPlace.get(placeId);
+        if (borough == null) {
+            return;
+        }
+        BoroughLock lock = lockFor(borough);
+        synchronized (lock) {
+            BoroughTrending trending = boroughs.get(borough);
+            if (trending != null) {
+                trending.updateClicks(placeId, clicks);
+            }
+            if (lock.pendingClicks != null) {
+                lock.pendingClicks.add(placeId);
+            }
+        }
+    }
+
+    /**
+     * Rebuild a borough from all of its live cached restaurants. Returns the
+     * restaurants together with their base scores, index-aligned, so callers can
+     * persist ranks without scoring again.
+     *
+     * Rebuilds of one borough run one at a time. Offers and clicks made while the
+     * restaurants load are recorded and applied to the new rankings before they are
+     * swapped in, so none of them is lost until the next rebuild.
+     */
+    public ScoredRestaurants rebuild(String borough) {
+        BoroughLock lock = lockFor(borough);
+        lock.rebuild.lock();
+        try {
+            synchronized (lock) {
+                lock.pendingOffers = new ArrayList<>();
+                lock.pendingClicks = new HashSet<>();
+            }
+            try {
+                return rebuild(borough, lock, cacheRepository.findLiveInBoroughWithPhotos(borough, Instant.now()));
+            } finally {
+                synchronized (lock) {
+                    lock.pendingOffers = null;
+                    lock.pendingClicks = null;
+                }
+            }
+        } finally {
+            lock.rebuild.unlock();
+        }
+    }
+
+    private ScoredRestaurants rebuild(String borough, BoroughLock lock, List<RestaurantCache> restaurants) {
+        Instant now = Instant.now();
+        double[] scores = new double[restaurants.size()];
+        BoroughTrending trending = new BoroughTrending();
+        for (int i = 0; i < restaurants.size(); i++) {
+            RestaurantCache restaurant = restaurants.get(i);
+            scores[i] = score(restaurant, now);
+            trending.load(restaurant, scores[i], clickTracker.current(restaurant.getPlaceId()));
+            boroughByPlace.put(restaurant.getPlaceId(), borough);
+        }
+        int replayed;
+        synchronized (lock) {
+            replayed = lock.pendingOffers.size() + lock.pendingClicks.size();
+            for (RestaurantCache offered : lock.pendingOffers) {
+                trending.load(offered, score(offered, now), clickTracker.current(offered.getPlaceId()));
+            }
+            for (String placeId : lock.pendingClicks) {
+                trending.updateClicks(placeId, clickTracker.current(placeId));
+            }
+            trending.publish();
+            boroughs.put(borough, trending);
+        }
+        logger.debug("Rebuilt trending for borough {} from {} restaurants, replaying {} updates",
+            borough, restaurants.size(), replayed);
+        return new ScoredRestaurants(restaurants, scores);
+    }
+
+    private BoroughLock lockFor(String borough) {
+        return locks.computeIfAbsent(borough, b -> new BoroughLock());
+    }
+
+    /**
+     * Periodic rebuild of every borough that has cached restaurants
+     */
+    @Scheduled(fixedDelayString = "${trending.rebuild-interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void rebuildAll() {
+        try {
+            Set<String> live = new HashSet<>();
+            for (Object[] row : cacheRepository.countByBorough(Instant.now())) {
+                String borough = (String) row[0];
+                if (borough != null) {
+                    live.add(borough);
+                    rebuild(borough);
+                }
+            }
+            boroughs.keySet().retainAll(live);
+            boroughByPlace.values().retainAll(live);
+            locks.keySet().retainAll(live);
+            logger.info("Rebuilt trending rankings for {} boroughs", live.size());
+        } catch (Exception e) {
+            logger.error("Error rebuilding trending rankings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Serializes rebuilds of one borough and, while one is loading, records the
+     * updates it has to replay. The pending collections are guarded by the monitor.
+     */
+    private static final class BoroughLock {
+        private final ReentrantLock rebuild = new ReentrantLock();
+        private List<RestaurantCache> pendingOffers;
+        private Set<String> pendingClicks;
+    }
+
+    /**
+     * Restaurants of a borough with the base score computed for each, index-aligned
+     */
+    public record ScoredRestaurants(List<RestaurantCache> restaurants, double[] scores) {
+
+        /** Indices into restaurants ordered by descending score */
+        public int[] ranking() {
+            return IntStream.range(0, scores.length).boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
+
+    /**
+     * Scores of one borough and their ranking. Slots index the primitive arrays; the
+     * ranking orders every slot by score, so a rescore is a remove and re-insert and
+     * the top K is the head of it. Published DTOs are copies and never change.
+     */
+    static final class BoroughTrending {
+        private final Map<String, Integer> slots = new HashMap<>();
+        private double[] baseScores = new double[16];
+        private double[] scores = new double[16];
+        private double[] clicks = new double[16];
+        private long[] expiresAt = new long[16];
+        private RestaurantSummaryDto[] items = new RestaurantSummaryDto[16]; // without analytics
+        private int size;
+
+        // Best first; a slot must be removed before its score changes
+        private final TreeSet<Integer> ranking = new TreeSet<>((a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        private volatile List<Ranked> ranked = List.of(); // published top K, best first
+
+        synchronized void put(RestaurantCache restaurant, double baseScore, double decayedClicks) {
+            load(restaurant, baseScore, decayedClicks);
+            publish();
+        }
+
+        /** Add without publishing; a rebuild publishes once after loading everything */
+        synchronized void load(RestaurantCache restaurant, double baseScore, double decayedClicks) {
+            Integer slot = slots.get(restaurant.getPlaceId());
+            if (slot == null) {
+                slot = size++;
+                ensureCapacity(size);
+                slots.put(restaurant.getPlaceId(), slot);
+            } else {
+                ranking.remove(slot);
+            }
+            baseScores[slot] = baseScore;
+            clicks[slot] = decayedClicks;
+            expiresAt[slot] = restaurant.getExpiresAt() != null ? restaurant.getExpiresAt().toEpochMilli() : Long.MAX_VALUE;
+            items[slot] = toDto(restaurant);
+            scores[slot] = popularity(baseScore, decayedClicks);
+            ranking.add(slot);
+        }
+
+        synchronized void updateClicks(String placeId, double decayedClicks) {
+            Integer slot = slots.get(placeId);
+            if (slot != null) {
+                ranking.remove(slot);
+                clicks[slot] = decayedClicks;
+                scores[slot] = popularity(baseScores[slot], decayedClicks);
+                ranking.add(slot);
+                publish();
+            }
+        }
+
+        List<RestaurantSummaryDto> top(int limit, long nowMillis) {
+            List<RestaurantSummaryDto> result = new ArrayList<>(Math.min(limit, TOP_K));
+            for (Ranked entry : ranked) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (entry.expiresAt() > nowMillis) { // expired entries drop out on the next rebuild
+                    result.add(entry.item());
+                }
+            }
+            return result;
+        }
+
+        synchronized void publish() {
+            List<Ranked> top = new ArrayList<>(Math.min(TOP_K, size));
+            for (int slot : ranking) {
+                if (top.size() >= TOP_K) {
+                    break;
+                }
+                top.add(new Ranked(items[slot].withAnalytics((int) Math.round(clicks[slot]), scores[slot]),
+                    expiresAt[slot]));
+            }
+            ranked = List.copyOf(top);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= scores.length) {
+                return;
+            }
+            int grown = Math.max(capacity, scores.length * 2);
+            baseScores = Arrays.copyOf(baseScores, grown);
+            scores = Arrays.copyOf(scores, grown);
+            clicks = Arrays.copyOf(clicks, grown);
+            expiresAt = Arrays.copyOf(expiresAt, grown);
+            items = Arrays.copyOf(items, grown);
+        }
+
+        private static RestaurantSummaryDto toDto(RestaurantCache restaurant) {
+            RestaurantSummaryDto dto = RestaurantSummaryDto.fromEntity(restaurant);
+            // Detach from the persistence context: the DTO outlives the entity
+            dto.setPhotoReferences(restaurant.getPhotoReferences() != null
+                ? List.copyOf(restaurant.getPhotoReferences()) : List.of());
+            return dto;
+        }
+    }
+
+    private record Ranked(RestaurantSummaryDto item, long expiresAt) {}
+}
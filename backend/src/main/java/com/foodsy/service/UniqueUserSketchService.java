@@ -0,0 +1,220 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.AnalyticsUserSketch;
+import com.foodsy.repository.AnalyticsUserSketchRepository;
+import com.foodsy.service.AnalyticsIngestPipeline.AnalyticsEvent;
+import com.foodsy.util.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distinct-user counts from HyperLogLog sketches instead of COUNT(DISTINCT user).
+ *
+ * The ingest writer adds every event with a user id to an hourly and a daily sketch,
+ * both per section and across all sections, plus a ring of per-minute sketches for
+ * the real-time "active users in the last hour" figure. Open buckets live in memory
+ * and are flushed to analytics_user_sketch by merging into the stored sketch, so
+ * flushes are idempotent and several nodes can share a row.
+ */
+@Service
+public class UniqueUserSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueUserSketchService.class);
+
+    private static final int MINUTES = 60;
+
+    private final AnalyticsUserSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<SketchKey, HyperLogLog> open = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+
+    // Per-minute ring for the last hour, indexed by epoch minute modulo 60
+    private final HyperLogLog[] minuteSketches = new HyperLogLog[MINUTES];
+    private final long[] minuteStamps = new long[MINUTES];
+
+    public UniqueUserSketchService(AnalyticsUserSketchRepository sketchRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < MINUTES; i++) {
+            minuteSketches[i] = new HyperLogLog();
+            minuteStamps[i] = -1;
+        }
+    }
+
+    /**
+     * Add the users of an ingested batch to the open sketches
+     */
+    public void apply(List<AnalyticsEvent> events) {
+        for (AnalyticsEvent event : events) {
+            if (event.userId() == null) {
+                continue;
+            }
+            Instant hour = event.createdAt().truncatedTo(ChronoUnit.HOURS);
+            Instant day = event.createdAt().truncatedTo(ChronoUnit.DAYS);
+            add(new SketchKey(AnalyticsUserSketch.HOUR, hour, AnalyticsUserSketch.ALL_SECTIONS), event.userId());
+            add(new SketchKey(AnalyticsUserSketch.DAY, day, AnalyticsUserSketch.ALL_SECTIONS), event.userId());
+            if (event.section() != null) {
+                add(new SketchKey(AnalyticsUserSketch.HOUR, hour, event.section()), event.userId());
+                add(new SketchKey(AnalyticsUserSketch.DAY, day, event.section()), event.userId());
+            }
+            addToMinute(event.createdAt(), event.userId());
+        }
+    }
+
+    /**
+     * Estimated distinct users per day since a day (oldest first)
+     */
+    public List<Object[]> countDailyActiveUsers(LocalDate since) {
+        Map<SketchKey, HyperLogLog> days = load(AnalyticsUserSketch.DAY, since);
+        List<Object[]> result = new ArrayList<>();
+        days.entrySet().stream()
+            .filter(e -> e.getKey().section().equals(AnalyticsUserSketch.ALL_SECTIONS))
+            .sorted(Map.Entry.comparingByKey((a, b) -> a.bucketStart().compareTo(b.bucketStart())))
+            .forEach(e -> result.add(new Object[] {
+                LocalDate.ofInstant(e.getKey().bucketStart(), ZoneOffset.UTC), e.getValue().estimate() }));
+        return result;
+    }
+
+    /**
+     * Estimated distinct users per section since a day, most popular first
+     */
+    public List<Object[]> findPopularSectionsByUniqueUsers(LocalDate since) {
+        Map<String, HyperLogLog> bySection = new HashMap<>();
+        load(AnalyticsUserSketch.DAY, since).forEach((key, sketch) -> {
+            if (!key.section().equals(AnalyticsUserSketch.ALL_SECTIONS)) {
+                bySection.computeIfAbsent(key.section(), s -> new HyperLogLog()).merge(sketch);
+            }
+        });
+        return bySection.entrySet().stream()
+            .map(e -> new Object[] { e.getKey(), e.getValue().estimate() })
+            .sorted((a, b) -> Long.compare((Long) b[1], (Long) a[1]))
+            .toList();
+    }
+
+    /**
+     * Estimated distinct users seen by this node in the last hour
+     */
+    public synchronized long activeUsersLastHour() {
+        long currentMinute = System.currentTimeMillis() / 60_000;
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < MINUTES; i++) {
+            if (currentMinute - minuteStamps[i] < MINUTES) {
+                union.merge(minuteSketches[i]);
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Merge open sketches into the stored ones and evict buckets that have closed
+     */
+    @Scheduled(fixedDelayString = "${analytics.sketches.flush-interval-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        Instant now = Instant.now();
+        int flushed = 0;
+        for (SketchKey key : new ArrayList<>(dirty)) {
+            dirty.remove(key);
+            HyperLogLog sketch = open.get(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                HyperLogLog snapshot;
+                synchronized (sketch) {
+                    snapshot = sketch.copy();
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    AnalyticsUserSketch row = sketchRepository
+                        .findForUpdate(key.granularity(), key.bucketStart(), key.section())
+                        .orElseGet(() -> new AnalyticsUserSketch(key.granularity(), key.bucketStart(), key.section()));
+                    HyperLogLog merged = row.getRegisters() != null
+                        ? HyperLogLog.fromBytes(row.getRegisters()).merge(snapshot) : snapshot;
+                    row.setRegisters(merged.toBytes());
+                    row.setUpdatedAt(now);
+                    sketchRepository.save(row);
+                });
+                flushed++;
+            } catch (Exception e) {
+                dirty.add(key); // retry on the next flush
+                logger.error("Failed to flush user sketch {}: {}", key, e.getMessage());
+            }
+        }
+
+        // Closed buckets are fully persisted once they are no longer dirty
+        open.keySet().removeIf(key -> !dirty.contains(key) && isClosed(key, now));
+        if (flushed > 0) {
+            logger.debug("Flushed {} user sketches", flushed);
+        }
+    }
+
+    /**
+     * Drop stored sketches beyond the retention period
+     */
+    public int cleanupOlderThan(Instant retentionDate) {
+        return sketchRepository.deleteOlderThan(AnalyticsUserSketch.HOUR, retentionDate)
+            + sketchRepository.deleteOlderThan(AnalyticsUserSketch.DAY, retentionDate);
+    }
+
+    private void add(SketchKey key, long userId) {
+        HyperLogLog sketch = open.computeIfAbsent(key, k -> new HyperLogLog());
+        synchronized (sketch) {
+            sketch.add(userId);
+        }
+        dirty.add(key);
+    }
+
+    private synchronized void addToMinute(Instant at, long userId) {
+        long minute = at.toEpochMilli() / 60_000;
+        int slot = (int) (minute % MINUTES);
+        if (minuteStamps[slot] != minute) {
+            minuteSketches[slot] = new HyperLogLog();
+            minuteStamps[slot] = minute;
+        }
+        minuteSketches[slot].add(userId);
+    }
+
+    /**
+     * Stored sketches since a day, merged with whatever this node has not flushed yet
+     */
+    private Map<SketchKey, HyperLogLog> load(String granularity, LocalDate since) {
+        Instant from = since.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+        for (AnalyticsUserSketch row : sketchRepository.findSince(granularity, from)) {
+            sketches.put(new SketchKey(row.getGranularity(), row.getBucketStart(), row.getSection()),
+                HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        open.forEach((key, sketch) -> {
+            if (key.granularity().equals(granularity) && !key.bucketStart().isBefore(from)) {
+                synchronized (sketch) {
+                    sketches.merge(key, sketch.copy(), HyperLogLog::merge);
+                }
+            }
+        });
+        return sketches;
+    }
+
+    private static boolean isClosed(SketchKey key, Instant now) {
+        ChronoUnit unit = AnalyticsUserSketch.HOUR.equals(key.granularity()) ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        return key.bucketStart().plus(1, unit).plus(5, ChronoUnit.MINUTES).isBefore(now); // allow late events
+    }
+
+    private record SketchKey(String granularity, Instant bucketStart, String section) {}
+}
@@ -0,0 +1,205 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Cuisine;
+import com.foodsy.repository.UserTastePreferencesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of taste profiles for "users like you" lookups.
+ *
+ * Similarity is a weighted sum of cuisine Jaccard similarity (bitCount over the
+ * Cuisine masks), price closeness and borough match. Since it depends only on the
+ * profile, users are grouped by cuisine mask and, within a group, by price and
+ * borough; a lookup scores each distinct cuisine mask once and skips any group
+ * whose best possible score cannot enter the current top N. The number of
+ * distinct masks is bounded by the 2^18 cuisine combinations, so a lookup stays
+ * well under a millisecond however many users share them.
+ *
+ * Loaded on startup and updated whenever a profile is saved or deleted.
+ */
+@Service
+public class UserSimilarityIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSimilarityIndex.class);
+
+    private static final double CUISINE_WEIGHT = 0.6;
+    private static final double PRICE_WEIGHT = 0.2;
+    private static final double BOROUGH_WEIGHT = 0.2;
+
+    // Borough codes; 0 means unknown
+    private static final List<String> BOROUGHS = List.of("Manhattan", "Brooklyn", "Queens", "Bronx", "Staten Island");
+
+    private final UserTastePreferencesRepository tastePreferencesRepository;
+
+    private final Map<Long, Profile> profiles = new ConcurrentHashMap<>();
+    private final Map<Integer, Group> groups = new ConcurrentHashMap<>();
+    private volatile Group[] scanOrder = new Group[0];
+
+    public UserSimilarityIndex(UserTastePreferencesRepository tastePreferencesRepository) {
+        this.tastePreferencesRepository = tastePreferencesRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<Object[]> rows = tastePreferencesRepository.findAllProfileSignatures();
+            synchronized (this) {
+                for (Object[] row : rows) {
+                    add(((Number) row[0]).longValue(),
+                        Profile.of(((Number) row[1]).intValue(), (String) row[2], (String) row[3]));
+                }
+                refreshScanOrder();
+            }
+            logger.info("Indexed {} taste profiles in {} cuisine groups", profiles.size(), groups.size());
+        } catch (Exception e) {
+            logger.error("Failed to load taste profiles into the similarity index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add or replace a user's profile
+     */
+    public synchronized void put(Long userId, int cuisineMask, String priceRange, String borough) {
+        Profile previous = profiles.get(userId);
+        boolean groupsChanged = previous != null && remove(userId, previous);
+        groupsChanged |= add(userId, Profile.of(cuisineMask, priceRange, borough));
+        if (groupsChanged) {
+            refreshScanOrder();
+        }
+    }
+
+    public synchronized void remove(Long userId) {
+        Profile previous = profiles.get(userId);
+        if (previous != null && remove(userId, previous)) {
+            refreshScanOrder();
+        }
+    }
+
+    /**
+     * Ids of the users most similar to the given user, most similar first
+     */
+    public List<Long> findSimilarUsers(Long userId, int limit) {
+        Profile profile = profiles.get(userId);
+        if (profile == null || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(limit, Comparator.comparingDouble(Match::score));
+        Group own = groups.get(profile.cuisineMask());
+        if (own != null) {
+            collect(own, profile, userId, limit, top); // fills the heap with strong matches first
+        }
+        for (Group group : scanOrder) {
+            if (group != own) {
+                collect(group, profile, userId, limit, top);
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::userId));
+        return ranked.stream().map(Match::userId).toList();
+    }
+
+    private void collect(Group group, Profile profile, Long userId, int limit, PriorityQueue<Match> top) {
+        double cuisineScore = CUISINE_WEIGHT * Cuisine.similarity(profile.cuisineMask(), group.cuisineMask);
+        if (top.size() == limit && cuisineScore + PRICE_WEIGHT + BOROUGH_WEIGHT <= top.peek().score()) {
+            return;
+        }
+        for (Map.Entry<Integer, Set<Long>> slot : group.usersBySlot.entrySet()) {
+            double score = cuisineScore + profile.attributeScore(slot.getKey());
+            for (Long other : slot.getValue()) {
+                if (top.size() == limit && score <= top.peek().score()) {
+                    break;
+                }
+                if (!other.equals(userId)) {
+                    if (top.size() == limit) {
+                        top.poll();
+                    }
+                    top.offer(new Match(other, score));
+                }
+            }
+        }
+    }
+
+    /** Returns true if a new cuisine group was created */
+    private boolean add(Long userId, Profile profile) {
+        profiles.put(userId, profile);
+        boolean created = !groups.containsKey(profile.cuisineMask());
+        groups.computeIfAbsent(profile.cuisineMask(), Group::new)
+            .usersBySlot.computeIfAbsent(profile.slot(), s -> ConcurrentHashMap.newKeySet())
+            .add(userId);
+        return created;
+    }
+
+    /** Returns true if a cuisine group became empty and was dropped */
+    private boolean remove(Long userId, Profile profile) {
+        profiles.remove(userId);
+        Group group = groups.get(profile.cuisineMask());
+        if (group == null) {
+            return false;
+        }
+        Set<Long> users = group.usersBySlot.get(profile.slot());
+        if (users != null && users.remove(userId) && users.isEmpty()) {
+            group.usersBySlot.remove(profile.slot());
+        }
+        if (group.usersBySlot.isEmpty()) {
+            groups.remove(profile.cuisineMask());
+            return true;
+        }
+        return false;
+    }
+
+    private void refreshScanOrder() {
+        scanOrder = groups.values().toArray(new Group[0]);
+    }
+
+    private static final class Group {
+        final int cuisineMask;
+        final Map<Integer, Set<Long>> usersBySlot = new ConcurrentHashMap<>(); // keyed by Profile.slot()
+
+        Group(int cuisineMask) {
+            this.cuisineMask = cuisineMask;
+        }
+    }
+
+    /**
+     * Packed profile: price level 0-3 (0 = unknown) and borough code 0-5 form the slot
+     */
+    private record Profile(int cuisineMask, int priceLevel, int borough) {
+
+        static Profile of(int cuisineMask, String priceRange, String borough) {
+            int price = priceRange != null && priceRange.matches("\\$+") ? Math.min(priceRange.length(), 3) : 0;
+            return new Profile(cuisineMask, price, borough != null ? BOROUGHS.indexOf(borough) + 1 : 0);
+        }
+
+        int slot() {
+            return priceLevel << 3 | borough;
+        }
+
+        double attributeScore(int otherSlot) {
+            int otherPrice = otherSlot >>> 3;
+            int otherBorough = otherSlot & 7;
+            double score = 0.0;
+            if (priceLevel > 0 && otherPrice > 0) {
+                score += PRICE_WEIGHT * (1.0 - Math.abs(priceLevel - otherPrice) / 2.0);
+            }
+            if (borough > 0 && borough == otherBorough) {
+                score += BOROUGH_WEIGHT;
+            }
+            return score;
+        }
+    }
+
+    private record Match(Long userId, double score) {}
+}
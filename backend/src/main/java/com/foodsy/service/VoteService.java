@@ -2,17 +2,23 @@ package com.foodsy.service;
 
 import com.foodsy.domain.*;
 import com.foodsy.dto.VoteRequest;
+import com.foodsy.dto.VoteResult;
 import com.foodsy.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
 
+import static com.foodsy.util.TransactionHooks.afterCommit;
+
 @Service
 @Transactional
 public class VoteService {
@@ -24,22 +30,39 @@ public class VoteService {
     private final SessionVoteHistoryRepository historyRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final SessionService sessionService;
+    private final VotingStatusService votingStatusService;
+    private final RoundService roundService;
+    private final RoundProgressTracker roundProgress;
+    private final TransactionTemplate newTransaction;
 
     public VoteService(SessionRestaurantRepository sessionRestaurantRepository,
                       SessionRepository sessionRepository,
                       UserVoteQuotaRepository quotaRepository,
                       SessionVoteHistoryRepository historyRepository,
                       SimpMessagingTemplate messagingTemplate,
-                      SessionService sessionService) {
+                      SessionService sessionService,
+                      VotingStatusService votingStatusService,
+                      RoundService roundService,
+                      RoundProgressTracker roundProgress,
+                      PlatformTransactionManager transactionManager) {
         this.sessionRestaurantRepository = sessionRestaurantRepository;
         this.sessionRepository = sessionRepository;
         this.quotaRepository = quotaRepository;
         this.historyRepository = historyRepository;
         this.messagingTemplate = messagingTemplate;
         this.sessionService = sessionService;
+        this.votingStatusService = votingStatusService;
+        this.roundService = roundService;
+        this.roundProgress = roundProgress;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    public void processVote(VoteRequest voteRequest) {
+    /**
+     * Validate and record a vote, returning the restaurant's new like count and the
+     * voter's remaining likes
+     */
+    public VoteResult processVote(VoteRequest voteRequest) {
         // Validate session and get current round
         Session session = sessionRepository.findById(voteRequest.sessionId())
             .orElseThrow(() -> new EntityNotFoundException("Session not found"));
@@ -103,8 +126,45 @@ public class VoteService {
 
         logger.debug("Vote processed successfully");
 
-        // Broadcast vote update via WebSocket
-        broadcastVoteUpdate(voteRequest.sessionId(), session.getRound());
+        // Broadcast vote update via WebSocket once the vote has committed, so a vote
+        // that rolls back never pushes the progress it would have made
+        Integer round = session.getRound();
+        afterCommit(() -> {
+            broadcastVoteUpdate(voteRequest.sessionId(), round);
+            votingStatusService.publish(voteRequest.sessionId());
+        });
+        // Registered after the broadcast so clients see this vote before the round ends
+        if (voteRequest.voteType() == VoteType.LIKE && !quota.canVote()) {
+            completeRoundIfLastVoter(voteRequest.sessionId(), round, voteRequest.userId());
+        }
+
+        return new VoteResult(voteRequest.providerId(), session.getRound(),
+                sessionRestaurant.getLikeCount(), quota.getRemainingVotes());
+    }
+
+    /**
+     * Once the vote commits, record that the user has no likes left; if they were the
+     * last participant with likes outstanding, complete the round. The round methods
+     * are idempotent, so a host command or timer racing with this is harmless.
+     */
+    private void completeRoundIfLastVoter(Long sessionId, int round, String userId) {
+        afterCommit(() -> {
+            if (!roundProgress.recordFinished(sessionId, round, userId)) {
+                return;
+            }
+            logger.info("All votes are in for session {} round {}, completing the round", sessionId, round);
+            try {
+                newTransaction.executeWithoutResult(status -> {
+                    if (round == 1) {
+                        roundService.transitionToRound2(sessionId);
+                    } else {
+                        roundService.completeSession(sessionId);
+                    }
+                });
+            } catch (Exception e) {
+                logger.error("Failed to complete round {} of session {}: {}", round, sessionId, e.getMessage(), e);
+            }
+        });
     }
 
     /**
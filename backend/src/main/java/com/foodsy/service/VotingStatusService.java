@@ -0,0 +1,71 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Session;
+import com.foodsy.dto.VotingStatusDto;
+import com.foodsy.repository.SessionRepository;
+import com.foodsy.repository.UserVoteQuotaRepository;
+import com.foodsy.repository.UserVoteQuotaRepository.VoteTally;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Voting progress of a session's current round, computed with one aggregate over
+ * the participants and their quotas. Clients receive it as a votingStatus event on
+ * the session topic whenever a vote, join or round change alters it.
+ */
+@Service
+public class VotingStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VotingStatusService.class);
+
+    private final SessionRepository sessionRepository;
+    private final UserVoteQuotaRepository quotaRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public VotingStatusService(SessionRepository sessionRepository,
+                               UserVoteQuotaRepository quotaRepository,
+                               SimpMessagingTemplate messagingTemplate) {
+        this.sessionRepository = sessionRepository;
+        this.quotaRepository = quotaRepository;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public VotingStatusDto getVotingStatus(Long sessionId) {
+        Session session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new EntityNotFoundException("Session not found"));
+        return getVotingStatus(session);
+    }
+
+    public VotingStatusDto getVotingStatus(Session session) {
+        int round = session.getRound();
+        // Same allowance a quota row is created with
+        int defaultAllowed = round == 1 ? (session.getLikesPerUser() != null ? session.getLikesPerUser() : 3) : 1;
+        VoteTally tally = quotaRepository.tallyRound(session.getId(), round, defaultAllowed);
+
+        int participants = toInt(tally.getParticipants());
+        int finished = toInt(tally.getFinished());
+        return new VotingStatusDto(participants, finished, finished == participants,
+            toInt(tally.getVotesUsed()), toInt(tally.getVotesAllowed()), round);
+    }
+
+    /**
+     * Push the current voting status to everyone in the session
+     */
+    public void publish(Long sessionId) {
+        try {
+            messagingTemplate.convertAndSend("/topic/session/" + sessionId,
+                Map.of("type", "votingStatus", "payload", getVotingStatus(sessionId)));
+        } catch (Exception e) {
+            logger.error("Failed to publish voting status for session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static int toInt(Long value) {
+        return value != null ? value.intValue() : 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.foodsy.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring mapping keys to nodes.
+ *
+ * Every node is placed on a 64-bit ring at several virtual points; a key belongs to
+ * the first point at or after its own hash, wrapping around. Removing a node moves
+ * only the keys it owned, which spread over the remaining nodes, and every other key
+ * keeps its owner. Rings built from the same nodes always agree.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final Set<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1");
+        }
+        this.nodes = Set.copyOf(nodes);
+        // Sorted insertion, so the rare colliding point goes to the same node everywhere
+        for (String node : new TreeSet<>(nodes)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Node owning the key, or null if the ring has no nodes
+     */
+    public String nodeFor(long key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    // FNV-1a, finished with the splitmix64 mixer for an even spread of similar names
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // splitmix64 finalizer: consecutive ids land far apart on the ring
+    static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,153 @@
+package com.foodsy.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch.
+ *
+ * Estimates the number of distinct values added to it in fixed memory: 2^precision
+ * one-byte registers, about 1.04 / sqrt(2^precision) relative standard error.
+ * Sketches of the same precision merge by taking the register-wise maximum, which
+ * is associative and idempotent, so partial sketches from several nodes or time
+ * buckets can be combined in any order - and re-merging the same data is harmless.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12; // 4 KiB, ~1.6% error
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; the sentinel bit caps it
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Fold another sketch of the same precision into this one
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Estimated number of distinct values added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // linear counting for small cardinalities
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    /**
+     * Compact serialized form: version, precision, then one byte per register
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 2];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 2, registers.length);
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported HyperLogLog serialization");
+        }
+        int precision = bytes[1];
+        if (bytes.length != (1 << precision) + 2) {
+            throw new IllegalArgumentException("Truncated HyperLogLog serialization");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 2, bytes.length));
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /** 64-bit FNV-1a over UTF-8, finished with a full avalanche mix */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
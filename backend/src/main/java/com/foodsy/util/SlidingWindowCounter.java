@@ -0,0 +1,72 @@
+package com.foodsy.util;
+
+import java.util.Arrays;
+
+/**
+ * Event count over a sliding time window, kept in a ring of fixed-width buckets.
+ *
+ * The window is bucketCount buckets of bucketMillis each. A running total is
+ * maintained as buckets expire, so both recording and reading are O(1) amortized:
+ * each bucket is cleared at most once per pass of the ring, and a gap longer than
+ * the whole window resets the ring in one step. Resolution is one bucket - the
+ * oldest bucket drops out as a whole. Thread-safe.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final long[] counts;
+
+    private long headBucket = Long.MIN_VALUE; // newest bucket index (epoch millis / bucketMillis)
+    private long total;
+
+    public SlidingWindowCounter(long bucketMillis, int bucketCount) {
+        if (bucketMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.counts = new long[bucketCount];
+    }
+
+    /**
+     * Count one event at the given time; events older than the window are ignored
+     */
+    public synchronized void record(long epochMillis) {
+        long bucket = Math.floorDiv(epochMillis, bucketMillis);
+        if (bucket > headBucket) {
+            advanceTo(bucket);
+        } else if (headBucket - bucket >= counts.length) {
+            return;
+        }
+        counts[slot(bucket)]++;
+        total++;
+    }
+
+    /**
+     * Number of events in the window ending at the given time
+     */
+    public synchronized long count(long epochMillis) {
+        long bucket = Math.floorDiv(epochMillis, bucketMillis);
+        if (bucket > headBucket) {
+            advanceTo(bucket);
+        }
+        return total;
+    }
+
+    private void advanceTo(long bucket) {
+        if (headBucket == Long.MIN_VALUE || bucket - headBucket >= counts.length) {
+            Arrays.fill(counts, 0);
+            total = 0;
+        } else {
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                int slot = slot(b);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
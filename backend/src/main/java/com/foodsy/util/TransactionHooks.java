@@ -0,0 +1,30 @@
+package com.foodsy.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for work that must only happen once the surrounding transaction commits
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Run an action after the current transaction commits; runs it immediately when no
+     * transaction is active. The action must not rely on the committed transaction:
+     * transactional work in it needs its own (REQUIRES_NEW) transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package com.foodsy.config;
+
+import com.foodsy.BackendApplication;
+import com.foodsy.service.JwtService;
+import com.foodsy.service.SessionOwnership;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two nodes on random ports sharing one H2 database: requests about a session are
+ * answered by its owner whichever node receives them, broadcasts reach the other
+ * node's broker, and a node whose owner refuses connections handles the request itself.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ClusterForwardingTest {
+
+    private static final String PROBE_PROFILE = "cluster-probe";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static String urlA;
+    private static String urlB;
+    private static final BlockingQueue<Message<?>> relayedToB = new LinkedBlockingQueue<>();
+
+    private final RestClient http = RestClient.create();
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        urlA = "http://localhost:" + portA;
+        urlB = "http://localhost:" + portB;
+        nodeA = start(portA, urlA, "create-drop");
+        nodeB = start(portB, urlB, "none"); // the schema is node A's
+        nodeB.getBean("brokerChannel", AbstractSubscribableChannel.class).addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (message.getHeaders().containsKey(ClusterBroadcastRelay.RELAYED_HEADER)) {
+                    relayedToB.add(message);
+                }
+                return message;
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null && nodeB.isActive()) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void requestsAreAnsweredByTheSessionOwner() {
+        assertEquals(urlB, probe(urlA, sessionOwnedBy(urlB)));
+        assertEquals(urlA, probe(urlA, sessionOwnedBy(urlA)));
+        assertEquals(urlA, probe(urlB, sessionOwnedBy(urlA)));
+    }
+
+    @Test
+    @Order(2)
+    void broadcastsAreRelayedToTheOtherNode() throws InterruptedException {
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/session/42", Map.of("type", "ping"));
+
+        Message<?> relayed = relayedToB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(relayed);
+        assertEquals("/topic/session/42", SimpMessageHeaderAccessor.getDestination(relayed.getHeaders()));
+        assertNull(relayedToB.poll(500, TimeUnit.MILLISECONDS)); // not bounced back and relayed again
+    }
+
+    @Test
+    @Order(3)
+    void refusedConnectionFallsBackToThisNode() {
+        long sessionOfB = sessionOwnedBy(urlB);
+        nodeB.close();
+
+        assertEquals(urlA, probe(urlA, sessionOfB));
+    }
+
+    private String probe(String node, long sessionId) {
+        String token = nodeA.getBean(JwtService.class).generateAccessToken("probe-user", "probe@example.com");
+        return http.get()
+                .uri(node + "/sessions/{id}/node", sessionId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static long sessionOwnedBy(String node) {
+        SessionOwnership ownership = nodeA.getBean(SessionOwnership.class);
+        return LongStream.rangeClosed(1, 10_000)
+                .filter(id -> ownership.ownerOf(id).equals(node))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ConfigurableApplicationContext start(int port, String self, String ddlAuto) {
+        return new SpringApplicationBuilder(BackendApplication.class, NodeProbe.class)
+                .profiles(PROBE_PROFILE)
+                .run( // as arguments, so they win over application.properties
+                        "--server.port=" + port,
+                        "--spring.datasource.url=jdbc:h2:mem:cluster-test;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--spring.jpa.show-sql=false",
+                        "--cluster.enabled=true",
+                        "--cluster.secret=cluster-test-secret",
+                        "--cluster.self-url=" + self,
+                        "--cluster.nodes=" + urlA + "," + urlB,
+                        "--cluster.request-timeout-ms=2000");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Session endpoint that answers with the node it ran on
+     */
+    @RestController
+    @Profile(PROBE_PROFILE)
+    static class NodeProbe {
+
+        @Value("${cluster.self-url}")
+        private String self;
+
+        @GetMapping("/sessions/{id}/node")
+        public String node(@PathVariable Long id) {
+            return self;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.foodsy.config;
+
+import com.foodsy.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * A STOMP connection is authenticated once, on CONNECT, from an access token;
+ * connections without a user are refused and later frames pass through untouched.
+ */
+class StompAuthenticationInterceptorTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final StompAuthenticationInterceptor interceptor = new StompAuthenticationInterceptor(jwtService);
+
+    @Test
+    void accessTokenAuthenticatesTheConnection() {
+        Claims access = claims("alice@example.com", "access");
+        when(jwtService.validateToken("good")).thenReturn(access);
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer good", null), channel);
+
+        assertEquals("alice@example.com", userOf(result).getName());
+    }
+
+    @Test
+    void refreshTokenIsRefused() {
+        Claims refresh = claims("alice@example.com", "refresh");
+        when(jwtService.validateToken("refresh")).thenReturn(refresh);
+
+        assertThrows(BadCredentialsException.class,
+            () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer refresh", null), channel));
+    }
+
+    @Test
+    void invalidOrMissingTokenIsRefused() {
+        when(jwtService.validateToken("bad")).thenThrow(new IllegalArgumentException("expired"));
+
+        assertThrows(BadCredentialsException.class,
+            () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer bad", null), channel));
+        assertThrows(BadCredentialsException.class,
+            () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null), channel));
+    }
+
+    @Test
+    void authenticatedHandshakeKeepsItsUser() {
+        Principal handshakeUser = new UsernamePasswordAuthenticationToken("bob@example.com", null, List.of());
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, null, handshakeUser), channel);
+
+        assertEquals("bob@example.com", userOf(result).getName());
+    }
+
+    @Test
+    void framesAfterConnectAreNotChecked() {
+        Message<?> send = frame(StompCommand.SEND, null, null);
+
+        assertSame(send, interceptor.preSend(send, channel));
+        verifyNoInteractions(jwtService);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String authorization, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal userOf(Message<?> message) {
+        return MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class).getUser();
+    }
+
+    private static Claims claims(String subject, String type) {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn(subject);
+        when(claims.get("type", String.class)).thenReturn(type);
+        return claims;
+    }
+}
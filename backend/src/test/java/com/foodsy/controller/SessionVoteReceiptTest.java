@@ -0,0 +1,145 @@
+package com.foodsy.controller;
+
+import com.foodsy.domain.Session;
+import com.foodsy.domain.VoteType;
+import com.foodsy.dto.VoteMessage;
+import com.foodsy.dto.VoteReceipt;
+import com.foodsy.dto.VoteRequest;
+import com.foodsy.dto.VoteResult;
+import com.foodsy.repository.SessionRepository;
+import com.foodsy.service.VoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every STOMP vote is answered with a receipt on the voting connection, accepted with
+ * the vote's result or rejected with the reason, and a session's votes are processed
+ * in the order they arrived.
+ */
+@SpringBootTest
+class SessionVoteReceiptTest {
+
+    private static final String CONNECTION = "connection-1";
+    private static final String RECEIPTS = "/queue/vote-receipts";
+    private static final AtomicInteger JOIN_CODES = new AtomicInteger(800000);
+
+    @Autowired
+    private SessionEventsController controller;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @MockitoBean
+    private VoteService voteService;
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void createSession() {
+        Session session = new Session();
+        session.setCreatorId("receipt-test");
+        session.setPoolSize(5);
+        session.setStatus("round1");
+        session.setJoinCode(String.valueOf(JOIN_CODES.incrementAndGet()));
+        sessionId = sessionRepository.saveAndFlush(session).getId();
+    }
+
+    @Test
+    void acceptedVoteCarriesItsResult() {
+        VoteResult result = new VoteResult("place-1", 1, 3, 1);
+        when(voteService.processVote(any())).thenReturn(result);
+
+        controller.vote(sessionId, new VoteMessage("place-1", VoteType.LIKE, "r-1"), user("Alice@Example.com "), CONNECTION);
+
+        VoteReceipt receipt = nextReceipt();
+        assertEquals("r-1", receipt.receiptId());
+        assertTrue(receipt.accepted());
+        assertEquals(result, receipt.result());
+        verify(voteService).processVote(new VoteRequest(sessionId, "place-1", "alice@example.com", VoteType.LIKE));
+    }
+
+    @Test
+    void rejectedVoteCarriesTheReason() {
+        when(voteService.processVote(any())).thenThrow(new IllegalStateException("No votes left"));
+
+        controller.vote(sessionId, new VoteMessage("place-1", VoteType.LIKE, "r-2"), user("alice@example.com"), CONNECTION);
+
+        VoteReceipt receipt = nextReceipt();
+        assertEquals("r-2", receipt.receiptId());
+        assertFalse(receipt.accepted());
+        assertNull(receipt.result());
+        assertEquals("No votes left", receipt.error());
+    }
+
+    @Test
+    void unauthenticatedAndIncompleteVotesAreRejectedWithoutVoting() {
+        controller.vote(sessionId, new VoteMessage("place-1", VoteType.LIKE, "r-3"), null, CONNECTION);
+        assertFalse(nextReceipt().accepted());
+
+        controller.vote(sessionId, new VoteMessage(null, VoteType.LIKE, "r-4"), user("alice@example.com"), CONNECTION);
+        ArgumentCaptor<VoteReceipt> receipts = ArgumentCaptor.forClass(VoteReceipt.class);
+        verify(messagingTemplate, timeout(5000).times(2))
+            .convertAndSendToUser(eq(CONNECTION), eq(RECEIPTS), receipts.capture(), anyMap());
+        assertEquals("r-4", receipts.getValue().receiptId());
+        assertFalse(receipts.getValue().accepted());
+        verifyNoInteractions(voteService);
+    }
+
+    @Test
+    void votesOfASessionAreProcessedInArrivalOrder() {
+        List<String> processed = new CopyOnWriteArrayList<>();
+        when(voteService.processVote(any())).thenAnswer(invocation -> {
+            VoteRequest request = invocation.getArgument(0);
+            processed.add(request.providerId());
+            return new VoteResult(request.providerId(), 1, processed.size(), 0);
+        });
+
+        List<String> sent = IntStream.range(0, 20).mapToObj(i -> "place-" + i).toList();
+        for (String providerId : sent) {
+            controller.vote(sessionId, new VoteMessage(providerId, VoteType.LIKE, providerId),
+                user("alice@example.com"), CONNECTION);
+        }
+
+        verify(messagingTemplate, timeout(5000).times(sent.size()))
+            .convertAndSendToUser(eq(CONNECTION), eq(RECEIPTS), any(VoteReceipt.class), anyMap());
+        assertEquals(sent, processed);
+    }
+
+    private VoteReceipt nextReceipt() {
+        ArgumentCaptor<VoteReceipt> receipt = ArgumentCaptor.forClass(VoteReceipt.class);
+        verify(messagingTemplate, timeout(5000).times(1))
+            .convertAndSendToUser(eq(CONNECTION), eq(RECEIPTS), receipt.capture(), anyMap());
+        return receipt.getValue();
+    }
+
+    private static Principal user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of());
+    }
+}
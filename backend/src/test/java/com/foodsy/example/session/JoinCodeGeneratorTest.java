@@ -10,4 +10,16 @@ public class JoinCodeGeneratorTest {
         String code = JoinCodeGenerator.generate();
         assertTrue(code.matches("\\d{6}"));
     }
+
+    @Test
+    void sequenceCodesAreUniqueAcrossTheWholeCodeSpace() {
+        long key = 0x5DEECE66DL;
+        boolean[] seen = new boolean[JoinCodeGenerator.CODE_SPACE];
+        for (int i = 0; i < JoinCodeGenerator.CODE_SPACE; i++) {
+            int code = JoinCodeGenerator.permute(i, key);
+            assertFalse(seen[code], "code repeated: " + code);
+            seen[code] = true;
+        }
+        assertTrue(JoinCodeGenerator.fromSequence(42, key).matches("\\d{6}"));
+    }
 }
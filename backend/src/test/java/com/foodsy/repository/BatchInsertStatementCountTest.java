@@ -0,0 +1,156 @@
+package com.foodsy.repository;
+
+import com.foodsy.domain.SessionRestaurant;
+import com.foodsy.domain.UserVoteQuota;
+import com.foodsy.service.AnalyticsIngestPipeline;
+import com.foodsy.service.AnalyticsIngestPipeline.AnalyticsEvent;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Pooled sequence ids let Hibernate batch inserts and updates: writing many rows
+ * prepares one statement per table, plus at most two sequence calls, instead of
+ * one statement per row. Analytics events bypass Hibernate and go out as one
+ * multi-row JDBC insert per batch.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.foodsy.repository.BatchInsertStatementCountTest$CountingInspector",
+    "analytics.ingest.batch-size=" + BatchInsertStatementCountTest.ROWS,
+    "analytics.ingest.flush-interval-ms=60000" // only a full batch wakes the writer
+})
+class BatchInsertStatementCountTest {
+
+    static final int ROWS = 20;
+
+    private static final String ANALYTICS_INSERT = "INSERT INTO homepage_analytics ";
+
+    @Autowired
+    private SessionRestaurantRepository sessionRestaurantRepository;
+
+    @Autowired
+    private UserVoteQuotaRepository userVoteQuotaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnalyticsIngestPipeline analyticsPipeline;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedingASessionBatchesInserts() {
+        List<SessionRestaurant> rows = IntStream.range(0, ROWS).mapToObj(i -> {
+            SessionRestaurant restaurant = new SessionRestaurant();
+            restaurant.setSessionId(1L);
+            restaurant.setProviderId("place-" + i);
+            restaurant.setName("Restaurant " + i);
+            return restaurant;
+        }).toList();
+
+        List<String> statements = record(() -> sessionRestaurantRepository.saveAll(rows));
+
+        assertEquals(1, count(statements, "insert"));
+        assertTrue(count(statements, "next") <= 2, statements::toString);
+    }
+
+    @Test
+    void roundTransitionQuotasBatchInsertsAndUpdates() {
+        List<UserVoteQuota> quotas = IntStream.range(0, ROWS)
+            .mapToObj(i -> new UserVoteQuota(2L, "user-" + i, 2, 1))
+            .toList();
+
+        List<String> inserts = record(() -> userVoteQuotaRepository.saveAll(quotas));
+        assertEquals(1, count(inserts, "insert"));
+
+        List<String> updates = record(() -> {
+            List<UserVoteQuota> loaded = userVoteQuotaRepository.findAllById(quotas.stream().map(UserVoteQuota::getId).toList());
+            loaded.forEach(quota -> quota.setVotesUsed(1));
+        });
+        assertEquals(1, count(updates, "update"));
+    }
+
+    @Test
+    void analyticsEventsGoOutAsOneInsert() throws InterruptedException {
+        Integer before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM homepage_analytics", Integer.class);
+        Instant now = Instant.now();
+        for (int i = 0; i < ROWS; i++) {
+            assertTrue(analyticsPipeline.submit(
+                new AnalyticsEvent(null, "visitor-" + i, "section_view", "trending", "place-" + i, null, now)));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (analyticsPipeline.getStats().written() < ROWS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(ROWS, analyticsPipeline.getStats().written());
+        assertEquals(0, analyticsPipeline.getStats().failed());
+        assertEquals(before + ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM homepage_analytics", Integer.class));
+        long inserts = mockingDetails(jdbcTemplate).getInvocations().stream()
+            .filter(call -> call.getMethod().getName().equals("update") && call.getMethod().isVarArgs()) // not its delegates
+            .filter(call -> call.getArgument(0) instanceof String sql && sql.startsWith(ANALYTICS_INSERT))
+            .count();
+        assertEquals(1, inserts);
+    }
+
+    private List<String> record(Runnable work) {
+        CountingInspector.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+            return CountingInspector.statements();
+        } finally {
+            CountingInspector.stop();
+        }
+    }
+
+    private static long count(List<String> statements, String prefix) {
+        return statements.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    /**
+     * Records the SQL Hibernate prepares on the current thread, so scheduled jobs
+     * running in the same context are not counted
+     */
+    public static class CountingInspector implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static List<String> statements() {
+            return List.copyOf(RECORDED.get());
+        }
+
+        static void stop() {
+            RECORDED.remove();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> recorded = RECORDED.get();
+            if (recorded != null) {
+                recorded.add(sql.strip().toLowerCase(Locale.ROOT));
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Session;
+import com.foodsy.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The scheduled cleanup expires stale live sessions in one statement and leaves
+ * active ones alone.
+ */
+@SpringBootTest
+class SessionCleanupServiceTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionCleanupService cleanupService;
+
+    @Test
+    void expiresOnlyStaleLiveSessions() {
+        Instant longAgo = Instant.now().minus(10, ChronoUnit.HOURS);
+        Session stale = sessionRepository.saveAndFlush(session("910001", "OPEN", longAgo));
+        Session active = sessionRepository.saveAndFlush(session("910002", "OPEN", Instant.now()));
+        Session ended = sessionRepository.saveAndFlush(session("910003", "ended", longAgo));
+
+        cleanupService.cleanupExpiredSessions();
+
+        assertEquals("expired", sessionRepository.findById(stale.getId()).orElseThrow().getStatus());
+        assertEquals("OPEN", sessionRepository.findById(active.getId()).orElseThrow().getStatus());
+        assertEquals("ended", sessionRepository.findById(ended.getId()).orElseThrow().getStatus());
+    }
+
+    private static Session session(String joinCode, String status, Instant since) {
+        Session session = new Session();
+        session.setCreatorId("cleanup-test");
+        session.setPoolSize(5);
+        session.setStatus(status);
+        session.setJoinCode(joinCode);
+        session.setCreatedAt(since);
+        session.setLastActivityAt(since);
+        return session;
+    }
+}
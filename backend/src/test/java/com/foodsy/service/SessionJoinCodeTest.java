@@ -0,0 +1,74 @@
+package com.foodsy.service;
+
+import com.foodsy.domain.Session;
+import com.foodsy.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Join codes are unique among live sessions and free again once a session ends or
+ * expires, on H2 as on PostgreSQL. Creating a session that draws a code already in
+ * use retries with another one.
+ */
+@SpringBootTest
+class SessionJoinCodeTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @MockitoBean
+    private JoinCodeAllocator joinCodeAllocator;
+
+    @MockitoBean
+    private SessionSeeder sessionSeeder;
+
+    @Test
+    void liveSessionsCannotShareAJoinCode() {
+        sessionRepository.saveAndFlush(session("900001", "OPEN"));
+
+        assertThrows(DataIntegrityViolationException.class,
+            () -> sessionRepository.saveAndFlush(session("900001", "OPEN")));
+    }
+
+    @Test
+    void endedSessionsReleaseTheirJoinCode() {
+        sessionRepository.saveAndFlush(session("900002", "ended"));
+        sessionRepository.saveAndFlush(session("900002", "expired"));
+
+        assertNotNull(sessionRepository.saveAndFlush(session("900002", "OPEN")).getId());
+    }
+
+    @Test
+    void creatingASessionDrawsAnotherCodeOnCollision() {
+        sessionRepository.saveAndFlush(session("900003", "OPEN"));
+        when(joinCodeAllocator.allocate()).thenReturn("900003", "900004");
+
+        Session request = new Session();
+        request.setCreatorId("join-code-test");
+        request.setPoolSize(5);
+        Session created = sessionService.createSession(request);
+
+        assertEquals("900004", created.getJoinCode());
+        assertEquals(created.getId(), sessionRepository.findIdByJoinCode("900004").orElseThrow());
+    }
+
+    private static Session session(String joinCode, String status) {
+        Session session = new Session();
+        session.setCreatorId("join-code-test");
+        session.setPoolSize(5);
+        session.setStatus(status);
+        session.setJoinCode(joinCode);
+        return session;
+    }
+}
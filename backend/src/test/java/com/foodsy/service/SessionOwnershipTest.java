@@ -0,0 +1,129 @@
+package com.foodsy.service;
+
+import com.foodsy.client.ClusterPeerClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A peer leaves the ring after failure-threshold missed pings in a row, its sessions
+ * move to the survivors, and it rejoins as soon as it answers again.
+ */
+class SessionOwnershipTest {
+
+    private static final String SELF = "http://node-a:8080";
+    private static final String PEER = "http://node-b:8080";
+
+    private final ClusterPeerClient peerClient = mock(ClusterPeerClient.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private SessionOwnership ownership;
+
+    @BeforeEach
+    void createOwnership() {
+        when(peerClient.hasSecret()).thenReturn(true);
+        ownership = new SessionOwnership(peerClient, events, true, SELF + "/", SELF + "," + PEER, 100, 3);
+    }
+
+    @Test
+    void peerLeavesAfterThresholdMissedPingsAndRejoins() {
+        long peerSession = sessionOwnedBy(PEER);
+        when(peerClient.ping(PEER)).thenReturn(false);
+
+        ownership.heartbeat();
+        ownership.heartbeat();
+        assertEquals(Set.of(PEER), ownership.livePeers());
+        assertEquals(PEER, ownership.ownerOf(peerSession));
+        verify(events, never()).publishEvent(any());
+
+        ownership.heartbeat();
+        assertTrue(ownership.livePeers().isEmpty());
+        assertTrue(ownership.isLocal(peerSession));
+        verify(events).publishEvent(any(SessionOwnership.RingChanged.class));
+
+        when(peerClient.ping(PEER)).thenReturn(true);
+        ownership.heartbeat();
+        assertEquals(Set.of(PEER), ownership.livePeers());
+        assertEquals(PEER, ownership.ownerOf(peerSession));
+        verify(events, times(2)).publishEvent(any(SessionOwnership.RingChanged.class));
+    }
+
+    @Test
+    void answeredPingResetsTheMissedCount() {
+        when(peerClient.ping(PEER)).thenReturn(false, false, true, false, false);
+
+        for (int i = 0; i < 5; i++) {
+            ownership.heartbeat();
+        }
+
+        assertEquals(Set.of(PEER), ownership.livePeers());
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void ringChangeTellsWhichSessionsStayLocal() {
+        long peerSession = sessionOwnedBy(PEER);
+        long localSession = sessionOwnedBy(SELF);
+        when(peerClient.ping(PEER)).thenReturn(false, false, false, true);
+        for (int i = 0; i < 3; i++) {
+            ownership.heartbeat();
+        }
+
+        when(peerClient.ping(PEER)).thenReturn(true);
+        ownership.heartbeat(); // peer rejoins and takes its sessions back
+
+        ArgumentCaptor<SessionOwnership.RingChanged> change = ArgumentCaptor.forClass(SessionOwnership.RingChanged.class);
+        verify(events, times(2)).publishEvent(change.capture());
+        assertFalse(change.getValue().isLocal(peerSession));
+        assertTrue(change.getValue().isLocal(localSession));
+    }
+
+    @Test
+    void workRunsHereOnlyIfTheOwnerCannotHaveDoneIt() {
+        Exception refused = new ResourceAccessException("I/O error", new ConnectException("Connection refused"));
+        Exception timedOut = new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+
+        assertTrue(ownership.canRunInsteadOf(PEER, refused));
+        assertFalse(ownership.canRunInsteadOf(PEER, timedOut));
+
+        when(peerClient.ping(PEER)).thenReturn(false);
+        for (int i = 0; i < 3; i++) {
+            ownership.heartbeat();
+        }
+        assertTrue(ownership.canRunInsteadOf(PEER, timedOut)); // left the ring
+    }
+
+    @Test
+    void clusterModeRequiresSelfUrlAndSecret() {
+        assertThrows(IllegalStateException.class,
+            () -> new SessionOwnership(peerClient, events, true, "", PEER, 100, 3));
+
+        when(peerClient.hasSecret()).thenReturn(false);
+        assertThrows(IllegalStateException.class,
+            () -> new SessionOwnership(peerClient, events, true, SELF, PEER, 100, 3));
+    }
+
+    private long sessionOwnedBy(String node) {
+        return LongStream.rangeClosed(1, 10_000)
+            .filter(id -> ownership.ownerOf(id).equals(node))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.foodsy.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Votes of one session run one at a time in arrival order, and a caller waiting on a
+ * backed-up lane gets a 503 instead of blocking indefinitely.
+ */
+class SessionVoteQueueTest {
+
+    private final SessionVoteQueue queue = new SessionVoteQueue(2, 200);
+
+    @AfterEach
+    void shutdown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void votesOfASessionRunInArrivalOrder() throws InterruptedException {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            int vote = i;
+            queue.submit(7L, () -> {
+                sleepMillis(ThreadLocalRandom.current().nextInt(2));
+                order.add(vote);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 50).boxed().toList(), order);
+    }
+
+    @Test
+    void awaitRethrowsWhatTheVoteThrows() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> queue.await(7L, () -> { throw new IllegalStateException("No votes left"); }));
+
+        assertEquals("No votes left", thrown.getMessage());
+    }
+
+    @Test
+    void awaitOnABackedUpLaneAnswers503AndWithdrawsTheVote() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        queue.submit(7L, () -> awaitQuietly(release)); // blocks the session's lane
+        AtomicBoolean ran = new AtomicBoolean();
+
+        ResponseStatusException thrown = assertThrows(ResponseStatusException.class,
+            () -> queue.await(7L, () -> ran.getAndSet(true)));
+        release.countDown();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, thrown.getStatusCode());
+        assertEquals("done", queue.await(7L, () -> "done")); // the lane has drained past the withdrawn vote
+        assertFalse(ran.get());
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
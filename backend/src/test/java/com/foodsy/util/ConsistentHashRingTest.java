@@ -0,0 +1,51 @@
+package com.foodsy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of(
+        "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+    @Test
+    void keysSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 100);
+        Map<String, Integer> owned = new HashMap<>();
+        for (long session = 1; session <= 30_000; session++) {
+            owned.merge(ring.nodeFor(session), 1, Integer::sum);
+        }
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, owned::toString));
+    }
+
+    @Test
+    void losingANodeMovesOnlyItsKeys() {
+        ConsistentHashRing full = new ConsistentHashRing(NODES, 100);
+        ConsistentHashRing degraded = new ConsistentHashRing(NODES.subList(0, 2), 100);
+        for (long session = 1; session <= 10_000; session++) {
+            String before = full.nodeFor(session);
+            String after = degraded.nodeFor(session);
+            if (!before.equals(NODES.get(2))) {
+                assertEquals(before, after);
+            } else {
+                assertNotEquals(NODES.get(2), after);
+            }
+        }
+    }
+
+    @Test
+    void ringsFromTheSameNodesAgree() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 50);
+        ConsistentHashRing reordered = new ConsistentHashRing(NODES.reversed(), 50);
+        for (long session = 1; session <= 1_000; session++) {
+            assertEquals(ring.nodeFor(session), reordered.nodeFor(session));
+        }
+        assertNull(new ConsistentHashRing(List.of(), 50).nodeFor(1));
+    }
+}
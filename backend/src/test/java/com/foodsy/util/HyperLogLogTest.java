@@ -0,0 +1,46 @@
+package com.foodsy.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctCountWithinExpectedError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long user = 0; user < 100_000; user++) {
+            sketch.add(user);
+            sketch.add(user); // duplicates must not count
+        }
+        assertEquals(100_000, sketch.estimate(), 100_000 * 0.05);
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            sketch.add("user-" + i);
+        }
+        assertEquals(50, sketch.estimate(), 1);
+        assertTrue(new HyperLogLog().isEmpty());
+    }
+
+    @Test
+    void mergeIsAUnionAndSurvivesSerialization() {
+        HyperLogLog morning = new HyperLogLog();
+        HyperLogLog evening = new HyperLogLog();
+        for (long user = 0; user < 6_000; user++) {
+            morning.add(user);
+        }
+        for (long user = 4_000; user < 10_000; user++) {
+            evening.add(user);
+        }
+
+        HyperLogLog day = HyperLogLog.fromBytes(morning.toBytes()).merge(evening);
+        assertEquals(10_000, day.estimate(), 10_000 * 0.05);
+
+        long once = day.estimate();
+        day.merge(evening); // re-merging the same data changes nothing
+        assertEquals(once, day.estimate());
+    }
+}
@@ -0,0 +1,29 @@
+package com.foodsy.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    void oldBucketsExpireAsTheWindowSlides() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000, 60);
+        long start = 1_700_000_000_000L;
+        for (int second = 0; second < 60; second++) {
+            counter.record(start + second * 1_000L);
+        }
+        assertEquals(60, counter.count(start + 59_000));
+        assertEquals(50, counter.count(start + 69_000));
+        assertEquals(0, counter.count(start + 10 * 60_000));
+    }
+
+    @Test
+    void eventsOlderThanTheWindowAreIgnored() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000, 60);
+        long now = 1_700_000_000_000L;
+        counter.record(now);
+        counter.record(now - 30_000); // late but inside the window
+        counter.record(now - 61_000);
+        assertEquals(2, counter.count(now));
+    }
+}
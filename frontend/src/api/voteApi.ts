@@ -6,6 +6,32 @@ export interface CreateVotePayload {
   voteType: VoteType;
 }
 
+/**
+ * Reply to a vote sent over the session WebSocket, on /user/queue/vote-receipts
+ */
+export interface VoteReceipt {
+  receiptId: string;
+  accepted: boolean;
+  result: {
+    providerId: string;
+    round: number;
+    likeCount: number;
+    remainingVotes: number;
+  } | null;
+  error: string | null;
+}
+
+/**
+ * A vote went out over the socket but no receipt came back (timeout or disconnect),
+ * so the server may or may not have recorded it
+ */
+export class UnconfirmedVoteError extends Error {
+  constructor(message: string) {
+    super(message);
+    this.name = "UnconfirmedVoteError";
+  }
+}
+
 /**
  * POST /api/sessions/{sessionId}/restaurants/{providerId}/vote
  */
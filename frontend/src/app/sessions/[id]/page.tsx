@@ -6,7 +6,6 @@ import React, {
   useEffect,
   useMemo,
   useCallback,
-  useRef,
 } from "react";
 
 import { useSessionVoting } from "@/hooks/useSessionVoting";
@@ -143,7 +142,7 @@ export default function SessionPage() {
   const [winner, setWinner] = useState<Restaurant | null>(null);
   const [votingStatus, setVotingStatus] = useState<{allVotesIn: boolean; totalParticipants: number; participantsWithNoVotesLeft: number; totalVotesCast: number; totalPossibleVotes: number; currentRound: number}>({allVotesIn: false, totalParticipants: 0, participantsWithNoVotesLeft: 0, totalVotesCast: 0, totalPossibleVotes: 0, currentRound: 1});
 
-  const { event, send } = useSessionWebSocket(sessionId);
+  const { event, send, sendVote } = useSessionWebSocket(sessionId);
 
   const bumpLikeLocally = useCallback(
     ({ providerId }: { providerId: string }) => {
@@ -187,6 +186,7 @@ export default function SessionPage() {
     currentRound,
     bumpLikeLocally,
     undoLikeLocally,
+    sendVote,
   });
 
   // Fallback fetch when round flips to 2 but WS didn’t deliver restaurants yet
@@ -250,73 +250,29 @@ export default function SessionPage() {
     })();
   }, [sessionId, authLoading]);
 
-  // Voting status polling effect with circuit breaker
-  const votingPollTimeoutRef = useRef<NodeJS.Timeout | null>(null);
-  const votingPollActiveRef = useRef(false);
+  // Initial voting status; later changes arrive as votingStatus WebSocket events
   useEffect(() => {
-    const stopPolling = () => {
-      if (votingPollTimeoutRef.current) {
-        clearTimeout(votingPollTimeoutRef.current);
-        votingPollTimeoutRef.current = null;
-      }
-      votingPollActiveRef.current = false;
-    };
-
-    if (!sessionId || !sessionStarted || sessionComplete || roundTransitioning) {
-      stopPolling();
-      return;
-    }
+    if (!sessionId || !sessionStarted || sessionComplete || roundTransitioning) return;
 
-    if (votingPollActiveRef.current) {
-      return; // already polling; don't start another loop
-    }
-    votingPollActiveRef.current = true;
-
-    let errorCount = 0;
-    let currentInterval = 5000;
-    const maxErrors = 3;
-
-    const fetchVotingStatus = async () => {
+    let cancelled = false;
+    (async () => {
       try {
         const response = await fetch(`${API_BASE_URL}/sessions/${sessionId}/voting-status`, {
           credentials: 'include',
           headers: { ...getAuthHeaders() }
         });
-
-        if (response.ok) {
-          const data = await response.json();
-          setVotingStatus(data);
-          errorCount = 0;
-          currentInterval = 5000;
-        } else {
-          errorCount++;
-          if (errorCount >= maxErrors) {
-            stopPolling();
-            return;
-          }
-          currentInterval = Math.min(currentInterval * 2, 30000);
+        if (response.ok && !cancelled) {
+          setVotingStatus(await response.json());
         }
       } catch (error) {
-        errorCount++;
-        if (errorCount >= maxErrors) {
-          stopPolling();
-          return;
-        }
-        currentInterval = Math.min(currentInterval * 2, 30000);
-      }
-
-      if (votingPollActiveRef.current) {
-        votingPollTimeoutRef.current = setTimeout(fetchVotingStatus, currentInterval);
+        console.error('Failed to load voting status:', error);
       }
-    };
-
-    // kick off
-    fetchVotingStatus();
+    })();
 
     return () => {
-      stopPolling();
+      cancelled = true;
     };
-  }, [sessionId, sessionStarted, sessionComplete, roundTransitioning]);
+  }, [sessionId, sessionStarted, sessionComplete, roundTransitioning, currentRound]);
 
   // WebSocket event effect
   useEffect(() => {
@@ -365,6 +321,9 @@ export default function SessionPage() {
       case "roundStatus":
         setCurrentRound(event.payload.currentRound as number);
         break;
+      case "votingStatus":
+        setVotingStatus(event.payload as unknown as typeof votingStatus);
+        break;
       default:
         break;
     }
@@ -1,5 +1,5 @@
 import { useState, useEffect, useCallback } from "react";
-import { createVote, VoteType } from "@/api/voteApi";
+import { createVote, UnconfirmedVoteError, VoteReceipt, VoteType } from "@/api/voteApi";
 import { useAuth } from "@/contexts/AuthContext";
 
 export interface SessionVotingOptions {
@@ -7,6 +7,8 @@ export interface SessionVotingOptions {
   currentRound: number;
   bumpLikeLocally?: (restaurant: { providerId: string }) => void;
   undoLikeLocally?: (restaurant: { providerId: string }) => void;
+  // Sends the vote over the session WebSocket; HTTP is used when it is unavailable
+  sendVote?: (providerId: string, voteType: VoteType) => Promise<VoteReceipt> | null;
 }
 
 interface VoteParams {
@@ -21,6 +23,7 @@ export function useSessionVoting({
   currentRound,
   bumpLikeLocally,
   undoLikeLocally,
+  sendVote,
 }: SessionVotingOptions) {
   const { isAuthenticated } = useAuth();
   const disabled = !isAuthenticated;
@@ -84,15 +87,33 @@ export function useSessionVoting({
     }
 
     try {
-      await createVote({
-        sessionId,
-        providerId,
-        voteType: type,
-      });
-      
-      // Manually refresh remaining votes after successful vote
-      await fetchRemainingVotes();
+      const pendingReceipt = sendVote ? sendVote(providerId, type) : null;
+
+      if (pendingReceipt) {
+        const receipt = await pendingReceipt;
+        if (!receipt.accepted || !receipt.result) {
+          throw new Error(receipt.error ?? "Vote rejected");
+        }
+        // The receipt carries the new counts, so no refresh is needed
+        setRemainingVotes(receipt.result.remainingVotes);
+      } else {
+        await createVote({
+          sessionId,
+          providerId,
+          voteType: type,
+        });
+
+        // Manually refresh remaining votes after successful vote
+        await fetchRemainingVotes();
+      }
     } catch (error) {
+      if (error instanceof UnconfirmedVoteError) {
+        // The vote may well have been recorded; keep the optimistic state and let the
+        // server's count of remaining votes decide rather than undoing a real like
+        console.warn("Vote not confirmed, refreshing remaining votes:", error.message);
+        await fetchRemainingVotes();
+        return;
+      }
       // rollback on failure ----------------------------------------
       setVoteByProvider((prev) => {
         // eslint-disable-next-line @typescript-eslint/no-unused-vars
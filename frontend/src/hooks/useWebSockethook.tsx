@@ -1,6 +1,7 @@
 import { useEffect, useRef, useState } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { UnconfirmedVoteError, type VoteReceipt, type VoteType } from '@/api/voteApi';
 
 interface WebSocketEvent {
   type: string;
@@ -11,6 +12,8 @@ interface WebSocketEvent {
 const POLLING_INTERVAL = 5000; // Reduced frequency
 const MAX_CONSECUTIVE_ERRORS = 3;
 const BACKOFF_MULTIPLIER = 2;
+// How long a vote sent over the socket waits for its receipt
+const VOTE_RECEIPT_TIMEOUT = 10000;
 
 // Get WebSocket URL based on environment
 function getWebSocketURL(useNative: boolean): string {
@@ -42,6 +45,7 @@ export function useSessionWebSocket(sessionId: number) {
   const pollingActiveRef = useRef(false);
   const errorCountRef = useRef(0);
   const currentIntervalRef = useRef(POLLING_INTERVAL);
+  const pendingVotesRef = useRef(new Map<string, { resolve: (receipt: VoteReceipt) => void; reject: (error: Error) => void }>());
 
   // Polling fallback for when WebSocket fails
   const startPolling = () => {
@@ -139,7 +143,10 @@ export function useSessionWebSocket(sessionId: number) {
     const wsUrl = getWebSocketURL(useNative);
     console.log('Connecting to WebSocket:', wsUrl, 'Native:', useNative);
     
+    const token = typeof window !== 'undefined' ? localStorage.getItem('accessToken') : null;
     const client = new Client({
+      // The connection is authenticated once here; votes sent over it carry no token
+      connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
       webSocketFactory: () => {
         if (useNative) {
           // Use native WebSocket for HTTPS connections
@@ -167,6 +174,18 @@ export function useSessionWebSocket(sessionId: number) {
             console.error('Error parsing WebSocket message:', parseError, message.body);
           }
         });
+        client.subscribe('/user/queue/vote-receipts', (message) => {
+          try {
+            const receipt = JSON.parse(message.body) as VoteReceipt;
+            const pending = pendingVotesRef.current.get(receipt.receiptId);
+            if (pending) {
+              pendingVotesRef.current.delete(receipt.receiptId);
+              pending.resolve(receipt);
+            }
+          } catch (parseError) {
+            console.error('Error parsing vote receipt:', parseError, message.body);
+          }
+        });
       } catch (subscribeError) {
         console.error('Error subscribing to WebSocket topic:', subscribeError);
         setIsConnected(false);
@@ -177,6 +196,7 @@ export function useSessionWebSocket(sessionId: number) {
     client.onDisconnect = () => {
       console.log('WebSocket disconnected');
       setIsConnected(false);
+      rejectPendingVotes();
     };
 
     client.onStompError = (frame) => {
@@ -219,6 +239,7 @@ export function useSessionWebSocket(sessionId: number) {
 
     return () => {
       stopPolling();
+      rejectPendingVotes();
       if (clientRef.current) {
         clientRef.current.deactivate();
       }
@@ -235,5 +256,34 @@ export function useSessionWebSocket(sessionId: number) {
     }
   };
 
-  return { event, send };
+  const rejectPendingVotes = () => {
+    pendingVotesRef.current.forEach(({ reject }) => reject(new UnconfirmedVoteError('WebSocket disconnected')));
+    pendingVotesRef.current.clear();
+  };
+
+  // Send a vote over the socket and resolve with the server's receipt; null when the
+  // socket is down, so the caller can use HTTP instead
+  const sendVote = (providerId: string, voteType: VoteType): Promise<VoteReceipt> | null => {
+    const client = clientRef.current;
+    if (!client || !client.connected) {
+      return null;
+    }
+    const receiptId = `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+    return new Promise<VoteReceipt>((resolve, reject) => {
+      const timeout = setTimeout(() => {
+        pendingVotesRef.current.delete(receiptId);
+        reject(new UnconfirmedVoteError('Vote receipt timed out'));
+      }, VOTE_RECEIPT_TIMEOUT);
+      pendingVotesRef.current.set(receiptId, {
+        resolve: (receipt) => { clearTimeout(timeout); resolve(receipt); },
+        reject: (error) => { clearTimeout(timeout); reject(error); },
+      });
+      client.publish({
+        destination: `/app/session/${sessionId}/vote`,
+        body: JSON.stringify({ providerId, voteType, receiptId }),
+      });
+    });
+  };
+
+  return { event, send, sendVote };
 }